@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.balzac.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+/**
+ * A thin client of the {@link Daemon}.
+ * <p>
+ * The client does not load the compiler: it forwards the request to the daemon
+ * listening on the loopback port, prints the response and returns its exit
+ * code. The request carries the {@link DaemonToken token} of the daemon, so
+ * the client must be run by the same user. The paths are resolved against the
+ * working directory of the client.
+ * </p>
+ * <p>
+ * Usage: {@code [--port <port>] compile <file> | validate <file-or-dir> [<threads>] | stop}
+ * </p>
+ */
+public class Client {
+
+    public static final String OPTION = "--client";
+
+    /**
+     * Send the request described by the given arguments to the daemon.
+     *
+     * @param args the arguments
+     * @return the exit code
+     */
+    public static int run(String[] args) {
+        int port = Daemon.DEFAULT_PORT;
+        int i = 0;
+        if (args.length > 1 && args[0].equals("--port")) {
+            port = Integer.parseInt(args[1]);
+            i = 2;
+        }
+        if (args.length <= i) {
+            System.err.println("Missing command, exiting...");
+            return 1;
+        }
+
+        String request;
+        switch (args[i]) {
+        case "compile":
+            if (args.length <= i + 1) {
+                System.err.println("Missing file path, exiting...");
+                return 1;
+            }
+            request = String.join(Daemon.SEPARATOR, "compile", absolute(args[i + 1]), absolute("src-gen") + "/");
+            break;
+        case "validate":
+            if (args.length <= i + 1) {
+                System.err.println("Missing file path, exiting...");
+                return 1;
+            }
+            String threads = args.length > i + 2 ? args[i + 2]
+                : String.valueOf(Runtime.getRuntime().availableProcessors());
+            request = String.join(Daemon.SEPARATOR, "validate", absolute(args[i + 1]), threads);
+            break;
+        case "stop":
+            request = "stop";
+            break;
+        default:
+            System.err.println("Unknown command " + args[i] + ", exiting...");
+            return 1;
+        }
+
+        String token;
+        try {
+            token = DaemonToken.read(port);
+        } catch (IOException e) {
+            System.err.println("Cannot read the token of the daemon on port " + port + ": " + e.getMessage());
+            return 1;
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write((token + Daemon.SEPARATOR + request + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return printResponse(
+                new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            System.err.println("Cannot reach the daemon on port " + port + ": " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /*
+     * Print the lines of the response to the respective streams, return the exit code
+     */
+    private static int printResponse(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int sep = line.indexOf(Daemon.SEPARATOR);
+            String tag = sep < 0 ? line : line.substring(0, sep);
+            String text = sep < 0 ? "" : line.substring(sep + 1);
+            switch (tag) {
+            case "out":
+                System.out.println(text);
+                break;
+            case "err":
+                System.err.println(text);
+                break;
+            case "exit":
+                return Integer.parseInt(text);
+            default:
+                System.err.println(line);
+            }
+        }
+        System.err.println("The daemon closed the connection, exiting...");
+        return 1;
+    }
+
+    private static String absolute(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.balzac.cli;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+/**
+ * A long-running compiler, serving the requests of the {@link Client}.
+ * <p>
+ * The daemon listens on a loopback port and keeps the injector, the resource
+ * set and the resource-scoped caches across requests. As soon as a loaded file
+ * changes on disk, the whole resource set is dropped, since the caches of the
+ * other resources may depend on it. Requests are served one at a time, since
+ * the resource set is shared; a validation request can still use many threads.
+ * </p>
+ * <p>
+ * A request is a single line made of the {@link DaemonToken token}, a command
+ * and its arguments, separated by tabs:
+ * </p>
+ * <ul>
+ * <li>{@code compile <file> <output-dir>}</li>
+ * <li>{@code validate <file-or-dir> <threads>}</li>
+ * <li>{@code stop}</li>
+ * </ul>
+ * <p>
+ * Each line of the response starts with {@code out} or {@code err}, followed
+ * by a tab and the text to print; the last line is {@code exit} followed by a
+ * tab and the exit code.
+ * </p>
+ */
+public class Daemon {
+
+    public static final String OPTION = "--daemon";
+
+    public static final int DEFAULT_PORT = 7385;
+
+    static final String SEPARATOR = "\t";
+
+    // the time a client has to send its request
+    private static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    @Inject
+    private Main main;
+
+    @Inject
+    private Provider<ResourceSet> resourceSetProvider;
+
+    private ResourceSet set;
+
+    private String token;
+
+    // the last modification time of each loaded file
+    private final Map<URI, Long> timestamps = new HashMap<>();
+
+    /**
+     * Serve the requests received on the given loopback port, until a stop
+     * request.
+     *
+     * @param port the port
+     * @throws IOException if the port cannot be opened
+     */
+    public void serve(int port) throws IOException {
+        set = resourceSetProvider.get();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            token = DaemonToken.create(port);
+            System.out.println("Listening on " + server.getLocalSocketAddress());
+            boolean running = true;
+            while (running) {
+                try (Socket socket = server.accept()) {
+                    socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+                    running = handle(socket);
+                } catch (IOException e) {
+                    System.err.println("Request failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            DaemonToken.delete(port);
+        }
+    }
+
+    /*
+     * Serve a request, return false if it asks to stop the daemon
+     */
+    private boolean handle(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        if (line == null) {
+            return true;
+        }
+        String[] fields = line.split(SEPARATOR);
+
+        OutputStream socketOut = socket.getOutputStream();
+        PrintStream out = new PrintStream(new LinePrefixOutputStream(socketOut, "out"), true, "UTF-8");
+        PrintStream err = new PrintStream(new LinePrefixOutputStream(socketOut, "err"), true, "UTF-8");
+
+        // only the user who started the daemon can read the token
+        boolean authorized = fields.length > 1 && DaemonToken.matches(token, fields[0]);
+        String[] request = authorized ? Arrays.copyOfRange(fields, 1, fields.length) : new String[0];
+
+        int exitCode;
+        if (!authorized) {
+            err.println("Invalid token, request refused.");
+            exitCode = 1;
+        }
+        else {
+            try {
+                exitCode = execute(request, out, err);
+            } catch (Exception e) {
+                err.println("Request failed: " + e);
+                exitCode = 1;
+            }
+        }
+        out.flush();
+        err.flush();
+        socketOut.write(("exit" + SEPARATOR + exitCode + "\n").getBytes(StandardCharsets.UTF_8));
+        socketOut.flush();
+        return !(authorized && request[0].equals("stop"));
+    }
+
+    private int execute(String[] request, PrintStream out, PrintStream err) throws Exception {
+        switch (request[0]) {
+        case "compile":
+            refresh();
+            try {
+                return main.runGenerator(set, request[1], request[2], out, err) ? 0 : 1;
+            } finally {
+                record();
+            }
+        case "validate":
+            refresh();
+            try {
+                return main.runValidation(set, Paths.get(request[1]), Integer.parseInt(request[2]), out, err) ? 0 : 1;
+            } finally {
+                record();
+            }
+        case "stop":
+            out.println("Daemon stopped.");
+            return 0;
+        default:
+            err.println("Unknown command " + request[0]);
+            return 1;
+        }
+    }
+
+    /*
+     * Drop the resource set if some file changed since it was loaded. The
+     * caches of the resources referring to a changed one are stale as well.
+     */
+    private void refresh() {
+        for (Map.Entry<URI, Long> e : timestamps.entrySet()) {
+            if (e.getValue() != lastModified(e.getKey())) {
+                for (Resource resource : set.getResources()) {
+                    resource.unload();
+                }
+                set = resourceSetProvider.get();
+                timestamps.clear();
+                return;
+            }
+        }
+    }
+
+    /*
+     * Record the modification time of the resources loaded by a request
+     */
+    private void record() {
+        for (Resource resource : set.getResources()) {
+            URI uri = resource.getURI();
+            if (uri.isFile() && !timestamps.containsKey(uri)) {
+                timestamps.put(uri, lastModified(uri));
+            }
+        }
+    }
+
+    private static long lastModified(URI uri) {
+        return new File(uri.toFileString()).lastModified();
+    }
+
+    /*
+     * Prefix each line written to the stream with the given tag
+     */
+    private static class LinePrefixOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final byte[] prefix;
+        private boolean atLineStart = true;
+
+        LinePrefixOutputStream(OutputStream out, String tag) {
+            this.out = out;
+            this.prefix = (tag + SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (atLineStart) {
+                out.write(prefix);
+                atLineStart = false;
+            }
+            out.write(b);
+            if (b == '\n') {
+                atLineStart = true;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
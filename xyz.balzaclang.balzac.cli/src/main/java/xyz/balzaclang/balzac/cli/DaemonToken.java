@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.balzac.cli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * The secret shared by the {@link Daemon} and its clients.
+ * <p>
+ * The daemon writes a fresh random token to a file readable only by its
+ * owner, and serves only the requests carrying it. Other users of the host
+ * can connect to the loopback port, but cannot read the token.
+ * </p>
+ */
+final class DaemonToken {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private DaemonToken() {
+    }
+
+    /**
+     * Return the file of the token of the daemon listening on the given port.
+     *
+     * @param port the port
+     * @return the path of the file
+     */
+    static Path file(int port) {
+        return Paths.get(System.getProperty("user.home"), ".balzac", "daemon-" + port + ".token");
+    }
+
+    /**
+     * Generate a new token and write it to the file of the given port,
+     * replacing any previous one. The directory of the file is made
+     * accessible only by its owner.
+     *
+     * @param port the port
+     * @return the token
+     * @throws IOException if the file cannot be written
+     */
+    static String create(int port) throws IOException {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        String token = BaseEncoding.base16().lowerCase().encode(bytes);
+
+        Path file = file(port);
+        Path dir = file.getParent();
+        Files.deleteIfExists(file);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            // both the directory and the file are user-only, so that the token is never readable by others
+            Set<PosixFilePermission> dirPermissions = EnumSet.of(PosixFilePermission.OWNER_READ,
+                PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+            Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(dirPermissions));
+            Files.setPosixFilePermissions(dir, dirPermissions);
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(
+                EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE)));
+        }
+        else {
+            Files.createDirectories(dir);
+        }
+        Files.write(file, token.getBytes(StandardCharsets.UTF_8));
+        return token;
+    }
+
+    /**
+     * Read the token of the daemon listening on the given port.
+     *
+     * @param port the port
+     * @return the token
+     * @throws IOException if the file cannot be read
+     */
+    static String read(int port) throws IOException {
+        return new String(Files.readAllBytes(file(port)), StandardCharsets.UTF_8).trim();
+    }
+
+    static void delete(int port) throws IOException {
+        Files.deleteIfExists(file(port));
+    }
+
+    /**
+     * Compare the given tokens in constant time.
+     *
+     * @param expected the token of the daemon
+     * @param actual   the token of the request
+     * @return true if the tokens are equal
+     */
+    static boolean matches(String expected, String actual) {
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+            actual.getBytes(StandardCharsets.UTF_8));
+    }
+}
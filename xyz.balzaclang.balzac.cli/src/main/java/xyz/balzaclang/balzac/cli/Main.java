@@ -16,7 +16,14 @@
 
 package xyz.balzaclang.balzac.cli;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -24,6 +31,7 @@ import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtext.generator.GeneratorContext;
 import org.eclipse.xtext.generator.GeneratorDelegate;
 import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
+import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.validation.CheckMode;
 import org.eclipse.xtext.validation.IResourceValidator;
@@ -42,17 +50,67 @@ public class Main {
             System.err.println("Missing file path, exiting...");
             System.exit(1);
         }
+        if (args[0].equals(Client.OPTION)) {
+            // forward the request to a running daemon, without loading the compiler
+            System.exit(Client.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         Injector injector = new BalzacStandaloneSetup().createInjectorAndDoEMFRegistration();
         Main main = injector.getInstance(Main.class);
+
+        if (args[0].equals(Daemon.OPTION)) {
+            int port = args.length > 1 ? parsePositive(args[1]) : Daemon.DEFAULT_PORT;
+            if (port < 0) {
+                System.err.println("Invalid port " + args[1] + ", exiting...");
+                System.exit(1);
+            }
+            try {
+                injector.getInstance(Daemon.class).serve(port);
+                System.exit(0);
+            } catch (IOException e) {
+                System.err.println("Daemon failed: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        Path path = Paths.get(args[0]);
+        if (Files.isDirectory(path)) {
+            // validate all the files within the directory
+            int threads = args.length > 1 ? parsePositive(args[1]) : Runtime.getRuntime().availableProcessors();
+            if (threads < 0) {
+                System.err.println("Invalid number of threads " + args[1] + ", exiting...");
+                System.exit(1);
+            }
+            try {
+                System.exit(main.runValidation(path, threads) ? 0 : 1);
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Validation failed: " + e.getMessage());
+                System.exit(1);
+            }
+        }
         main.runGenerator(args[0]);
     }
 
+    /*
+     * Parse a positive integer, return -1 if the string is not valid
+     */
+    private static int parsePositive(String string) {
+        try {
+            int value = Integer.parseInt(string);
+            return value > 0 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     @Inject
     private Provider<ResourceSet> resourceSetProvider;
 
     @Inject
     private IResourceValidator validator;
 
+    @Inject
+    private ParallelValidator parallelValidator;
+
     @Inject
     private GeneratorDelegate generator;
 
@@ -60,25 +118,91 @@ public class Main {
     private JavaIoFileSystemAccess fileAccess;
 
     protected void runGenerator(String string) {
+        runGenerator(resourceSetProvider.get(), string, "src-gen/", System.out, System.err);
+    }
+
+    /**
+     * Validate the given file and generate the code, if there are no issues.
+     *
+     * @param set        the resource set loading the file
+     * @param string     the path of the file
+     * @param outputPath the path of the generated files
+     * @param out        the stream of the messages
+     * @param err        the stream of the issues
+     * @return true if the code was generated, false otherwise
+     */
+    protected boolean runGenerator(ResourceSet set, String string, String outputPath, PrintStream out,
+        PrintStream err) {
         // Load the resource
-        ResourceSet set = resourceSetProvider.get();
         Resource resource = set.getResource(URI.createFileURI(string), true);
 
         // Validate the resource
         List<Issue> list = validator.validate(resource, CheckMode.ALL, CancelIndicator.NullImpl);
         if (!list.isEmpty()) {
             for (Issue issue : list) {
-                System.err.println(issue);
+                err.println(issue);
             }
-            return;
+            return false;
         }
 
         // Configure and start the generator
-        fileAccess.setOutputPath("src-gen/");
+        fileAccess.setOutputPath(outputPath);
         GeneratorContext context = new GeneratorContext();
         context.setCancelIndicator(CancelIndicator.NullImpl);
         generator.generate(resource, fileAccess, context);
 
-        System.out.println("Code generation finished.");
+        out.println("Code generation finished.");
+        return true;
+    }
+
+    /**
+     * Validate the Balzac files within the given directory, using up to the
+     * given number of threads. The issues are printed grouped by file, in order
+     * of path.
+     *
+     * @param dir     the directory
+     * @param threads the maximum number of threads
+     * @return true if there are no errors, false otherwise
+     * @throws IOException          if the directory cannot be visited
+     * @throws InterruptedException if interrupted while validating
+     */
+    protected boolean runValidation(Path dir, int threads) throws IOException, InterruptedException {
+        return runValidation(resourceSetProvider.get(), dir, threads, System.out, System.err);
+    }
+
+    /**
+     * Validate the Balzac files within the given directory, loading them into
+     * the given resource set.
+     *
+     * @param set     the resource set loading the files
+     * @param dir     the directory
+     * @param threads the maximum number of threads
+     * @param out     the stream of the summary
+     * @param err     the stream of the issues
+     * @return true if there are no errors, false otherwise
+     * @throws IOException          if the directory cannot be visited
+     * @throws InterruptedException if interrupted while validating
+     */
+    protected boolean runValidation(ResourceSet set, Path dir, int threads, PrintStream out, PrintStream err)
+        throws IOException, InterruptedException {
+        List<Path> files = ParallelValidator.findSources(dir);
+        Map<Resource, List<Issue>> issues = parallelValidator.validateFiles(set, files, threads);
+
+        int errors = 0;
+        int warnings = 0;
+        for (List<Issue> list : issues.values()) {
+            for (Issue issue : list) {
+                err.println(issue);
+                if (issue.getSeverity() == Severity.ERROR) {
+                    errors++;
+                }
+                else if (issue.getSeverity() == Severity.WARNING) {
+                    warnings++;
+                }
+            }
+        }
+
+        out.println("Validated " + files.size() + " files: " + errors + " errors, " + warnings + " warnings.");
+        return errors == 0;
     }
 }
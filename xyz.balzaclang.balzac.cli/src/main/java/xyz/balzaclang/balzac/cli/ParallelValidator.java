@@ -0,0 +1,244 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.balzac.cli;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.resource.IContainer;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsProvider;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.eclipse.xtext.validation.Issue;
+
+import com.google.common.base.Throwables;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+/**
+ * Validates many resources of the same resource set concurrently.
+ * <p>
+ * All the resources are loaded and linked, and their descriptions computed,
+ * before the validation starts, so that the workers never modify the resource
+ * set nor the caches shared by all the resources. Resources referring to each
+ * other are validated by the same worker, which is then the only one using
+ * their other resource-scoped caches. The issues are returned in the order of the
+ * resources, regardless of the order the workers complete.
+ * </p>
+ */
+public class ParallelValidator {
+
+    public static final String FILE_EXTENSION = "balzac";
+
+    @Inject
+    private Provider<ResourceSet> resourceSetProvider;
+
+    @Inject
+    private IResourceValidator validator;
+
+    @Inject
+    private ResourceDescriptionsProvider resourceDescriptionsProvider;
+
+    @Inject
+    private IContainer.Manager containerManager;
+
+    /**
+     * Return the Balzac files within the given directory and its
+     * subdirectories, sorted by path.
+     *
+     * @param dir the directory
+     * @return the sorted paths of the files
+     * @throws IOException if the directory cannot be visited
+     */
+    public static List<Path> findSources(Path dir) throws IOException {
+        checkNotNull(dir, "'dir' cannot be null");
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(p -> Files.isRegularFile(p) && p.toString().endsWith("." + FILE_EXTENSION)).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Load the given files into a new resource set and validate them.
+     *
+     * @param files   the files to validate
+     * @param threads the maximum number of concurrent workers
+     * @return the issues of each file, in the order of the given files
+     * @throws InterruptedException if interrupted while waiting the workers
+     */
+    public Map<Resource, List<Issue>> validateFiles(List<Path> files, int threads) throws InterruptedException {
+        return validateFiles(resourceSetProvider.get(), files, threads);
+    }
+
+    /**
+     * Load the given files into the given resource set, unless already loaded,
+     * and validate them.
+     *
+     * @param set     the resource set
+     * @param files   the files to validate
+     * @param threads the maximum number of concurrent workers
+     * @return the issues of each file, in the order of the given files
+     * @throws InterruptedException if interrupted while waiting the workers
+     */
+    public Map<Resource, List<Issue>> validateFiles(ResourceSet set, List<Path> files, int threads)
+        throws InterruptedException {
+        checkNotNull(set, "'set' cannot be null");
+        checkNotNull(files, "'files' cannot be null");
+        List<Resource> resources = new ArrayList<>();
+        for (Path file : files) {
+            resources.add(set.getResource(URI.createFileURI(file.toAbsolutePath().toString()), true));
+        }
+        return validate(resources, threads);
+    }
+
+    /**
+     * Validate the given resources, which must belong to the same resource set.
+     *
+     * @param resources the resources to validate
+     * @param threads   the maximum number of concurrent workers
+     * @return the issues of each resource, in the order of the given resources
+     * @throws InterruptedException if interrupted while waiting the workers
+     */
+    public Map<Resource, List<Issue>> validate(List<Resource> resources, int threads) throws InterruptedException {
+        checkNotNull(resources, "'resources' cannot be null");
+        checkArgument(threads > 0, "'threads' must be positive");
+
+        Map<Resource, List<Issue>> issues = new LinkedHashMap<>();
+        if (resources.isEmpty()) {
+            return issues;
+        }
+
+        // link everything (loading the referred resources) before going concurrent
+        ResourceSet set = resources.get(0).getResourceSet();
+        EcoreUtil.resolveAll(set);
+        computeDescriptions(set);
+
+        List<List<Resource>> groups = groupByReferences(set, resources);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, groups.size()));
+        try {
+            List<Future<Map<Resource, List<Issue>>>> futures = new ArrayList<>();
+            for (List<Resource> group : groups) {
+                // the resources of a group are validated by the same worker
+                futures.add(executor.submit(() -> {
+                    Map<Resource, List<Issue>> res = new IdentityHashMap<>();
+                    for (Resource resource : group) {
+                        res.put(resource, validator.validate(resource, CheckMode.ALL, CancelIndicator.NullImpl));
+                    }
+                    return res;
+                }));
+            }
+            Map<Resource, List<Issue>> results = new IdentityHashMap<>();
+            for (Future<Map<Resource, List<Issue>>> future : futures) {
+                results.putAll(future.get());
+            }
+            for (Resource resource : resources) {
+                issues.put(resource, results.get(resource));
+            }
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return issues;
+    }
+
+    /*
+     * Compute the descriptions of all the resources and their exported objects,
+     * as the validation of any resource does when it lists the visible
+     * containers. These are cached lazily within each resource, so they must be
+     * computed before the workers share them.
+     */
+    private void computeDescriptions(ResourceSet set) {
+        for (Resource resource : new ArrayList<>(set.getResources())) {
+            IResourceDescriptions index = resourceDescriptionsProvider.getResourceDescriptions(resource);
+            IResourceDescription description = index.getResourceDescription(resource.getURI());
+            if (description == null) {
+                continue;
+            }
+            for (IContainer container : containerManager.getVisibleContainers(description, index)) {
+                for (IEObjectDescription od : container.getExportedObjects()) {
+                    od.getQualifiedName();
+                }
+            }
+        }
+    }
+
+    /*
+     * Partition the resources into the connected components of the graph of
+     * the references within the resource set, preserving the order of the
+     * resources within each component. Resources sharing a dependency are in
+     * the same component.
+     */
+    private static List<List<Resource>> groupByReferences(ResourceSet set, List<Resource> resources) {
+        Map<Resource, Resource> parent = new IdentityHashMap<>();
+        for (Resource resource : set.getResources()) {
+            parent.put(resource, resource);
+        }
+        for (Resource resource : set.getResources()) {
+            TreeIterator<EObject> it = resource.getAllContents();
+            while (it.hasNext()) {
+                for (EObject target : it.next().eCrossReferences()) {
+                    Resource other = target.eResource();
+                    if (other != null && other != resource && parent.containsKey(other)) {
+                        parent.put(find(parent, resource), find(parent, other));
+                    }
+                }
+            }
+        }
+
+        Map<Resource, List<Resource>> groups = new LinkedHashMap<>();
+        for (Resource resource : resources) {
+            groups.computeIfAbsent(find(parent, resource), r -> new ArrayList<>()).add(resource);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static Resource find(Map<Resource, Resource> parent, Resource resource) {
+        Resource root = resource;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        parent.put(resource, root);
+        return root;
+    }
+}
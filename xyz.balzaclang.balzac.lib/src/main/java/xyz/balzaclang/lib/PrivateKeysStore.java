@@ -36,12 +36,17 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import org.bitcoinj.core.ECKey;
 import org.bitcoinj.core.Utils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import xyz.balzaclang.lib.model.NetworkType;
 import xyz.balzaclang.lib.model.PrivateKey;
 import xyz.balzaclang.lib.utils.BitcoinUtils;
@@ -52,10 +57,33 @@ public class PrivateKeysStore {
         return BitcoinUtils.encode(Utils.sha256hash160(key.getBytes()));
     }
 
+    /**
+     * The maximum number of decoded keys kept in memory.
+     */
+    public static final int KEYS_CACHE_SIZE = 256;
+
+    /*
+     * A decoded key. The given bytes are zeroed once decoded, but the key and
+     * the ECKey keep their own copies (an array and a BigInteger), which cannot
+     * be wiped and live until they are garbage collected.
+     */
+    private static class CachedKey {
+        private final PrivateKey key;
+        private final ECKey ecKey;
+
+        private CachedKey(byte[] bytes, boolean compressPublicKey, NetworkType networkType) {
+            this.key = PrivateKey.from(bytes, compressPublicKey, networkType);
+            this.ecKey = ECKey.fromPrivate(bytes, compressPublicKey);
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+
     private char[] password;
     private KeyStore ks;
     private Map<String, NetworkType> netwotkTypeMap = new HashMap<>();
     private Map<String, Boolean> compressPubkeyMap = new HashMap<>();
+    private final Cache<String, CachedKey> keysCache = CacheBuilder.newBuilder().maximumSize(KEYS_CACHE_SIZE)
+        .recordStats().build();
 
     /**
      * Create a new ECKeyStore with an <b>empty password</b>. Use
@@ -106,22 +134,73 @@ public class PrivateKeysStore {
         ks.setEntry(keyID, kEntry, new PasswordProtection(password));
         netwotkTypeMap.put(keyID, key.getNetworkType());
         compressPubkeyMap.put(keyID, key.compressPublicKey());
+        keysCache.invalidate(keyID);
         return keyID;
     }
 
+    /**
+     * Return the private key with the given ID. Decoded keys are cached, so the
+     * keystore entry is decrypted only the first time.
+     *
+     * @param keyID the key ID
+     * @return the private key
+     * @throws KeyStoreException if the key cannot be fetched
+     */
     public PrivateKey getKey(String keyID) throws KeyStoreException {
+        return getCachedKey(keyID).key;
+    }
+
+    /**
+     * Return the bitcoinj key with the given ID, which can be used for signing.
+     *
+     * @param keyID the key ID
+     * @return the bitcoinj key
+     * @throws KeyStoreException if the key cannot be fetched
+     * @see #getKey(String)
+     */
+    public ECKey getECKey(String keyID) throws KeyStoreException {
+        return getCachedKey(keyID).ecKey;
+    }
+
+    private CachedKey getCachedKey(String keyID) throws KeyStoreException {
         checkState(ks.containsAlias(keyID));
+        try {
+            return keysCache.get(keyID, () -> loadKey(keyID));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof KeyStoreException) {
+                throw (KeyStoreException) e.getCause();
+            }
+            throw new KeyStoreException("Cannot fetch key " + keyID + ": " + e.getMessage(), e.getCause());
+        }
+    }
+
+    private CachedKey loadKey(String keyID) throws KeyStoreException {
         Key entryKey;
         try {
             entryKey = ks.getKey(keyID, password);
             boolean compressPublicKey = compressPubkeyMap.get(keyID);
             NetworkType networkType = netwotkTypeMap.get(keyID);
-            return PrivateKey.from(entryKey.getEncoded(), compressPublicKey, networkType);
+            return new CachedKey(entryKey.getEncoded(), compressPublicKey, networkType);
         } catch (UnrecoverableKeyException | NoSuchAlgorithmException e) {
             throw new KeyStoreException("Cannot fetch key " + keyID + ": " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Remove all the decoded keys from memory.
+     */
+    public void invalidateCache() {
+        keysCache.invalidateAll();
+    }
+
+    public long getCacheHitCount() {
+        return keysCache.stats().hitCount();
+    }
+
+    public long getCacheMissCount() {
+        return keysCache.stats().missCount();
+    }
+
     public boolean containsKey(String keyID) throws KeyStoreException {
         return ks.containsAlias(keyID);
     }
@@ -145,6 +224,9 @@ public class PrivateKeysStore {
             Arrays.fill(this.password, '0');
             this.password = Arrays.copyOf(password, password.length);
 
+            // keys will be decrypted again with the new password
+            invalidateCache();
+
         } catch (NoSuchAlgorithmException | UnrecoverableEntryException e) {
             throw new KeyStoreException(e);
         }
@@ -17,16 +17,20 @@
 package xyz.balzaclang.lib.model;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.lang3.reflect.MethodUtils;
 import org.bitcoinj.core.Utils;
 import org.bitcoinj.script.ScriptBuilder;
 import org.bouncycastle.crypto.digests.RIPEMD160Digest;
@@ -38,9 +42,77 @@ public class Hash implements Comparable<Hash> {
     private final byte[] bytes;
 
     public enum HashAlgorithm {
-        SHA256, RIPEMD160, HASH256, HASH160, SHA1
+        SHA256(32), RIPEMD160(20), HASH256(32), HASH160(20), SHA1(20);
+
+        private final int length;
+
+        private HashAlgorithm(int length) {
+            this.length = length;
+        }
+
+        /**
+         * Return the length of the digest.
+         *
+         * @return the number of bytes of the digest
+         */
+        public int getLength() {
+            return length;
+        }
+    }
+
+    /*
+     * Digests owned by a single thread, reused across invocations. The buffer
+     * holds the intermediate SHA-256 of HASH160 and HASH256.
+     */
+    private static final class Engine {
+
+        private final MessageDigest sha256 = newMessageDigest("SHA-256");
+        private final MessageDigest sha1 = newMessageDigest("SHA-1");
+        private final RIPEMD160Digest ripemd160 = new RIPEMD160Digest();
+        private final byte[] buffer = new byte[32];
+
+        private void hash(byte[] in, HashAlgorithm alg, byte[] out, int offset) {
+            switch (alg) {
+            case SHA256 -> digest(sha256, in, 0, in.length, out, offset);
+            case SHA1 -> digest(sha1, in, 0, in.length, out, offset);
+            case RIPEMD160 -> ripemd160(in, 0, in.length, out, offset);
+            case HASH256 -> {
+                digest(sha256, in, 0, in.length, buffer, 0);
+                digest(sha256, buffer, 0, buffer.length, out, offset);
+            }
+            case HASH160 -> {
+                digest(sha256, in, 0, in.length, buffer, 0);
+                ripemd160(buffer, 0, buffer.length, out, offset);
+            }
+            }
+        }
+
+        private static void digest(MessageDigest md, byte[] in, int inOffset, int inLength, byte[] out, int outOffset) {
+            try {
+                md.update(in, inOffset, inLength);
+                md.digest(out, outOffset, md.getDigestLength());
+            } catch (DigestException e) {
+                md.reset();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void ripemd160(byte[] in, int inOffset, int inLength, byte[] out, int outOffset) {
+            ripemd160.update(in, inOffset, inLength);
+            ripemd160.doFinal(out, outOffset);
+        }
+
+        private static MessageDigest newMessageDigest(String algo) {
+            try {
+                return MessageDigest.getInstance(algo);
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("Unable to instantiate a message digest for " + algo, e);
+            }
+        }
     }
 
+    private static final ThreadLocal<Engine> engine = ThreadLocal.withInitial(Engine::new);
+
     public Hash(byte[] bytes) {
         this.bytes = bytes;
     }
@@ -95,78 +167,153 @@ public class Hash implements Comparable<Hash> {
     }
 
     public static Hash hash(Object input, HashAlgorithm alg) {
-        checkArgument(input instanceof Number || input instanceof Hash || input instanceof Boolean
-            || input instanceof String || input instanceof byte[]);
-
-        String methodName = switch (alg) {
-            case HASH160 ->     { yield "hash160"; }
-            case HASH256 ->     { yield "hash256"; }
-            case RIPEMD160 ->   { yield "ripemd160"; }
-            case SHA256 ->      { yield "sha256"; }
-            case SHA1 ->        { yield "sha1"; }
-        };
-
-        try {
-            Method method = MethodUtils.getMatchingMethod(Hash.class, methodName, input.getClass());
-            return Hash.class.cast(method.invoke(null, input));
-        } catch (SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new IllegalStateException(e);
+        return digest(toBytes(input), alg);
+    }
+
+    /**
+     * Hash the given input, writing the digest into {@code out}.
+     *
+     * @param input  the value to hash
+     * @param alg    the hash algorithm
+     * @param out    the destination array
+     * @param offset the position of {@code out} where the digest starts
+     * @return the length of the digest
+     */
+    public static int hashInto(Object input, HashAlgorithm alg, byte[] out, int offset) {
+        checkNotNull(alg, "'alg' cannot be null");
+        checkNotNull(out, "'out' cannot be null");
+        checkArgument(offset >= 0 && out.length - offset >= alg.length,
+            "'out' must have room for %s bytes from offset %s", alg.length, offset);
+        engine.get().hash(toBytes(input), alg, out, offset);
+        return alg.length;
+    }
+
+    /**
+     * Hash the given input, writing the digest at the beginning of {@code out}.
+     *
+     * @param input the value to hash
+     * @param alg   the hash algorithm
+     * @param out   the destination array
+     * @return the length of the digest
+     * @see #hashInto(Object, HashAlgorithm, byte[], int)
+     */
+    public static int hashInto(Object input, HashAlgorithm alg, byte[] out) {
+        return hashInto(input, alg, out, 0);
+    }
+
+    /**
+     * Hash the given input with all the algorithms. The input is encoded once,
+     * and the SHA-256 digest is shared by SHA256, HASH256 and HASH160.
+     *
+     * @param input the value to hash
+     * @return the digests, by algorithm
+     */
+    public static Map<HashAlgorithm, Hash> hashAll(Object input) {
+        byte[] bytes = toBytes(input);
+        Engine e = engine.get();
+        byte[] sha256 = new byte[HashAlgorithm.SHA256.length];
+        byte[] sha1 = new byte[HashAlgorithm.SHA1.length];
+        byte[] ripemd160 = new byte[HashAlgorithm.RIPEMD160.length];
+        byte[] hash256 = new byte[HashAlgorithm.HASH256.length];
+        byte[] hash160 = new byte[HashAlgorithm.HASH160.length];
+        e.hash(bytes, HashAlgorithm.SHA256, sha256, 0);
+        e.hash(bytes, HashAlgorithm.SHA1, sha1, 0);
+        e.hash(bytes, HashAlgorithm.RIPEMD160, ripemd160, 0);
+        e.hash(sha256, HashAlgorithm.SHA256, hash256, 0);
+        e.hash(sha256, HashAlgorithm.RIPEMD160, hash160, 0);
+
+        Map<HashAlgorithm, Hash> result = new EnumMap<>(HashAlgorithm.class);
+        result.put(HashAlgorithm.SHA256, new Hash(sha256));
+        result.put(HashAlgorithm.SHA1, new Hash(sha1));
+        result.put(HashAlgorithm.RIPEMD160, new Hash(ripemd160));
+        result.put(HashAlgorithm.HASH256, new Hash(hash256));
+        result.put(HashAlgorithm.HASH160, new Hash(hash160));
+        return result;
+    }
+
+    /**
+     * Hash each of the given inputs, using the same digests and intermediate
+     * buffer for all of them.
+     *
+     * @param inputs the values to hash
+     * @param alg    the hash algorithm
+     * @return the digests, in the same order of the inputs
+     */
+    public static List<Hash> hashBatch(List<?> inputs, HashAlgorithm alg) {
+        checkNotNull(inputs, "'inputs' cannot be null");
+        checkNotNull(alg, "'alg' cannot be null");
+        Engine e = engine.get();
+        List<Hash> result = new ArrayList<>(inputs.size());
+        for (Object input : inputs) {
+            byte[] digested = new byte[alg.length];
+            e.hash(toBytes(input), alg, digested, 0);
+            result.add(new Hash(digested));
         }
+        return result;
+    }
+
+    /*
+     * The bytes hashed for the given value. The returned array must not be
+     * modified.
+     */
+    private static byte[] toBytes(Object input) {
+        if (input instanceof byte[] bytes)
+            return bytes;
+        if (input instanceof Hash hash)
+            return hash.bytes;
+        if (input instanceof String str)
+            return str.getBytes(StandardCharsets.UTF_8);
+        if (input instanceof Boolean bool)
+            return bool ? TRUE : FALSE;
+        if (input instanceof Number num)
+            return getIntegerBytes(num);
+        throw new IllegalArgumentException("unexpected input of class " + (input == null ? null : input.getClass()));
+    }
+
+    private static Hash digest(byte[] bytes, HashAlgorithm alg) {
+        byte[] digested = new byte[alg.length];
+        engine.get().hash(bytes, alg, digested, 0);
+        return new Hash(digested);
     }
 
     public static Hash sha1(byte[] bytes) {
-        return hash(bytes, "SHA-1");
+        return digest(bytes, HashAlgorithm.SHA1);
     }
 
     public static Hash sha256(byte[] bytes) {
-        return hash(bytes, "SHA-256");
+        return digest(bytes, HashAlgorithm.SHA256);
     }
 
     public static Hash ripemd160(byte[] bytes) {
-        RIPEMD160Digest digest = new RIPEMD160Digest();
-        digest.update(bytes, 0, bytes.length);
-        byte[] ripmemdHash = new byte[20];
-        digest.doFinal(ripmemdHash, 0);
-        return new Hash(ripmemdHash);
+        return digest(bytes, HashAlgorithm.RIPEMD160);
     }
 
     public static Hash hash160(byte[] bytes) {
-        return ripemd160(sha256(bytes));
+        return digest(bytes, HashAlgorithm.HASH160);
     }
 
     public static Hash hash256(byte[] bytes) {
-        return sha256(sha256(bytes));
-    }
-
-    private static Hash hash(byte[] bytes, String algo) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance(algo);
-            digest.update(bytes);
-            byte[] digested = digest.digest();
-            return new Hash(digested);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to instantiate a message digest for " + algo, e);
-        }
+        return digest(bytes, HashAlgorithm.HASH256);
     }
 
     public static Hash hash160(Hash obj) {
-        return hash160(obj.getBytes());
+        return hash160(obj.bytes);
     }
 
     public static Hash hash256(Hash obj) {
-        return hash256(obj.getBytes());
+        return hash256(obj.bytes);
     }
 
     public static Hash ripemd160(Hash obj) {
-        return ripemd160(obj.getBytes());
+        return ripemd160(obj.bytes);
     }
 
     public static Hash sha256(Hash obj) {
-        return sha256(obj.getBytes());
+        return sha256(obj.bytes);
     }
 
     public static Hash sha1(Hash obj) {
-        return sha1(obj.getBytes());
+        return sha1(obj.bytes);
     }
 
     public static Hash hash160(String obj) {
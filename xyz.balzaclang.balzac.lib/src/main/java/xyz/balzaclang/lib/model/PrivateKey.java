@@ -16,7 +16,6 @@
 
 package xyz.balzaclang.lib.model;
 
-import org.bitcoinj.core.DumpedPrivateKey;
 import org.bitcoinj.core.ECKey;
 
 public interface PrivateKey {
@@ -37,11 +36,15 @@ public interface PrivateKey {
 
     public PrivateKey withNetwork(NetworkType networkType);
 
+    /**
+     * Parse the given WIF. Keys are interned, so parsing the same WIF multiple
+     * times returns the same instance.
+     *
+     * @param wif the key in wallet import format
+     * @return the private key
+     */
     public static PrivateKey fromBase58(String wif) {
-        DumpedPrivateKey key = DumpedPrivateKey.fromBase58(null, wif);
-        byte[] keyBytes = key.getKey().getPrivKeyBytes();
-        boolean compressPubkey = key.isPubKeyCompressed();
-        return from(keyBytes, compressPubkey, NetworkType.from(key.getParameters()));
+        return PrivateKeyImpl.fromBase58(wif);
     }
 
     public static PrivateKey from(byte[] keyBytes, boolean compressPubkey, NetworkType params) {
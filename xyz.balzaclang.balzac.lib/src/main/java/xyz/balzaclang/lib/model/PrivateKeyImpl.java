@@ -18,24 +18,66 @@ package xyz.balzaclang.lib.model;
 
 import java.util.Arrays;
 
+import org.bitcoinj.core.DumpedPrivateKey;
 import org.bitcoinj.core.ECKey;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import xyz.balzaclang.lib.utils.BitcoinUtils;
 
 class PrivateKeyImpl implements PrivateKey {
 
+    /*
+     * Keys parsed from their WIF, shared by the whole process
+     */
+    private static final Cache<String, PrivateKey> interned = CacheBuilder.newBuilder().maximumSize(1024).build();
+
     private final NetworkType params;
     private final byte[] privkey;
     private final boolean compressPubkey;
-    private final PublicKey pubkey;
-    private final Address address;
+
+    // derived values are computed on demand, at most once
+    private final Supplier<ECKey> eckey;
+    private final Supplier<PublicKey> pubkey;
+    private final Supplier<Address> address;
+    private final Supplier<String> wif;
 
     PrivateKeyImpl(byte[] privkey, boolean compressPubkey, NetworkType params) {
         this.params = params;
         this.privkey = Arrays.copyOf(privkey, privkey.length);
         this.compressPubkey = compressPubkey;
-        this.pubkey = PublicKey.fromBytes(ECKey.fromPrivate(privkey, compressPubkey).getPubKey());
-        this.address = Address.fromPubkey(pubkey.getBytes(), params);
+        this.eckey = Suppliers.memoize(() -> ECKey.fromPrivate(this.privkey, compressPubkey));
+        this.pubkey = Suppliers.memoize(() -> PublicKey.fromBytes(eckey.get().getPubKey()));
+        this.address = Suppliers.memoize(() -> Address.fromPubkey(pubkey.get().getBytes(), params));
+        this.wif = Suppliers.memoize(() -> eckey.get().getPrivateKeyAsWiF(params.toNetworkParameters()));
+    }
+
+    /*
+     * Same key on another network: the public key does not depend on the network
+     */
+    private PrivateKeyImpl(PrivateKeyImpl key, NetworkType params) {
+        this.params = params;
+        this.privkey = key.privkey;
+        this.compressPubkey = key.compressPubkey;
+        this.eckey = key.eckey;
+        this.pubkey = key.pubkey;
+        this.address = Suppliers.memoize(() -> Address.fromPubkey(pubkey.get().getBytes(), params));
+        this.wif = Suppliers.memoize(() -> eckey.get().getPrivateKeyAsWiF(params.toNetworkParameters()));
+    }
+
+    static PrivateKey fromBase58(String wif) {
+        PrivateKey key = interned.getIfPresent(wif);
+        if (key == null) {
+            DumpedPrivateKey dumped = DumpedPrivateKey.fromBase58(null, wif);
+            byte[] keyBytes = dumped.getKey().getPrivKeyBytes();
+            boolean compressPubkey = dumped.isPubKeyCompressed();
+            key = new PrivateKeyImpl(keyBytes, compressPubkey, NetworkType.from(dumped.getParameters()));
+            interned.put(wif, key);
+        }
+        return key;
     }
 
     @Override
@@ -51,7 +93,7 @@ class PrivateKeyImpl implements PrivateKey {
 
     @Override
     public String getWif() {
-        return ECKey.fromPrivate(privkey, compressPubkey).getPrivateKeyAsWiF(params.toNetworkParameters());
+        return wif.get();
     }
 
     @Override
@@ -61,12 +103,12 @@ class PrivateKeyImpl implements PrivateKey {
 
     @Override
     public PublicKey toPublicKey() {
-        return pubkey;
+        return pubkey.get();
     }
 
     @Override
     public Address toAddress() {
-        return address;
+        return address.get();
     }
 
     @Override
@@ -76,7 +118,7 @@ class PrivateKeyImpl implements PrivateKey {
 
     @Override
     public PrivateKey withNetwork(NetworkType networkType) {
-        return new PrivateKeyImpl(privkey, compressPubkey, networkType);
+        return new PrivateKeyImpl(this, networkType);
     }
 
     @Override
@@ -21,16 +21,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import java.util.Arrays;
 import java.util.Optional;
 
-import org.bitcoinj.core.ECKey;
 import org.bitcoinj.core.SignatureDecodeException;
-import org.bitcoinj.core.Transaction;
 import org.bitcoinj.core.VerificationException;
 import org.bitcoinj.crypto.TransactionSignature;
 
 import xyz.balzaclang.lib.PrivateKeysStore;
 import xyz.balzaclang.lib.model.transaction.ITransactionBuilder;
-import xyz.balzaclang.lib.model.transaction.Input;
-import xyz.balzaclang.lib.model.transaction.Output;
+import xyz.balzaclang.lib.model.transaction.SigningSession;
 import xyz.balzaclang.lib.utils.BitcoinUtils;
 
 public class Signature {
@@ -89,6 +86,17 @@ public class Signature {
         return true;
     }
 
+    /**
+     * Sign the given input of the transaction. In order to compute many
+     * signatures of the same transaction, use a {@link SigningSession}.
+     *
+     * @param key        the private key
+     * @param txBuilder  the transaction to be signed
+     * @param keyStore   the keystore used to materialize the transaction
+     * @param inputIndex the index of the input
+     * @param modifier   the signature modifier
+     * @return the signature
+     */
     public static Signature computeSignature(
         PrivateKey key,
         ITransactionBuilder txBuilder,
@@ -96,16 +104,6 @@ public class Signature {
         int inputIndex,
         SignatureModifier modifier) {
 
-        Transaction tx = txBuilder.toTransaction(keyStore);
-
-        Input input = txBuilder.getInputs().get(inputIndex);
-        int outputIndex = input.getOutIndex();
-        Output output = input.getParentTx().getOutputs().get(outputIndex);
-        byte[] outputScript = output.getScript().build().getProgram();
-
-        TransactionSignature sig = tx.calculateSignature(inputIndex, ECKey.fromPrivate(key.getBytes()), outputScript,
-            modifier.toHashType(), modifier.toAnyoneCanPay());
-
-        return new Signature(sig.encodeToBitcoin(), key.toPublicKey());
+        return new SigningSession(keyStore).sign(key, txBuilder, inputIndex, modifier);
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction.SigHash;
+import org.bitcoinj.crypto.TransactionSignature;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Compute transaction signatures, according to a {@link Policy}.
+ * <p>
+ * Signatures are deterministic (RFC 6979), so they are cached by signature
+ * hash and key ID: signing the same hash with the same key again returns the
+ * cached signature. Key IDs are derived from the key bytes (see
+ * {@link xyz.balzaclang.lib.PrivateKeysStore#getUniqueID(PrivateKey)}), so the
+ * cache can be shared by different keystores.
+ * </p>
+ */
+public class Signer {
+
+    /**
+     * Whether a newly computed signature is verified against the public key.
+     */
+    public enum Policy {
+        /** Verify each signature */
+        VERIFY_ALWAYS,
+        /** Verify one signature every {@link Signer#getSampleRate()} */
+        VERIFY_SAMPLED,
+        /** Never verify */
+        TRUST
+    }
+
+    public static final int DEFAULT_SAMPLE_RATE = 16;
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static volatile Signer defaultSigner = new Signer(Policy.VERIFY_ALWAYS);
+
+    /**
+     * Return the signer used when none is specified.
+     *
+     * @return the default signer
+     */
+    public static Signer getDefault() {
+        return defaultSigner;
+    }
+
+    public static void setDefault(Signer signer) {
+        checkNotNull(signer, "'signer' cannot be null");
+        defaultSigner = signer;
+    }
+
+    private record SignatureKey(Sha256Hash sighash, String keyID, SigHash hashType, boolean anyoneCanPay) {
+    }
+
+    private final Policy policy;
+    private final int sampleRate;
+    private final Cache<SignatureKey, TransactionSignature> cache;
+
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder cached = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+
+    public Signer(Policy policy) {
+        this(policy, DEFAULT_SAMPLE_RATE, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create a new signer.
+     *
+     * @param policy     the verification policy
+     * @param sampleRate for {@link Policy#VERIFY_SAMPLED}, one signature every
+     *                   {@code sampleRate} is verified
+     * @param cacheSize  the maximum number of cached signatures, 0 to disable the
+     *                   cache
+     */
+    public Signer(Policy policy, int sampleRate, int cacheSize) {
+        checkNotNull(policy, "'policy' cannot be null");
+        checkArgument(sampleRate > 0, "'sampleRate' must be positive");
+        checkArgument(cacheSize >= 0, "'cacheSize' cannot be negative");
+        this.policy = policy;
+        this.sampleRate = sampleRate;
+        this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sign the given hash.
+     *
+     * @param sighash      the signature hash of the transaction input
+     * @param keyID        the ID of the key
+     * @param key          the key, whose ID is {@code keyID}
+     * @param hashType     the signature modifier
+     * @param anyoneCanPay the signature modifier
+     * @return the signature
+     * @throws IllegalStateException if the signature is verified and it is not
+     *                               valid
+     */
+    public TransactionSignature sign(Sha256Hash sighash, String keyID, ECKey key, SigHash hashType,
+        boolean anyoneCanPay) {
+        checkNotNull(sighash, "'sighash' cannot be null");
+        checkNotNull(keyID, "'keyID' cannot be null");
+        checkNotNull(key, "'key' cannot be null");
+        checkNotNull(hashType, "'hashType' cannot be null");
+        SignatureKey cacheKey = new SignatureKey(sighash, keyID, hashType, anyoneCanPay);
+        TransactionSignature sig = cache.getIfPresent(cacheKey);
+        if (sig != null) {
+            cached.increment();
+            return sig;
+        }
+        try {
+            return cache.get(cacheKey, () -> computeSignature(sighash, key, hashType, anyoneCanPay));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private TransactionSignature computeSignature(Sha256Hash sighash, ECKey key, SigHash hashType,
+        boolean anyoneCanPay) {
+        computed.increment();
+        TransactionSignature sig = new TransactionSignature(key.sign(sighash), hashType, anyoneCanPay);
+        if (mustVerify()) {
+            verified.increment();
+            checkState(key.verify(sighash, sig), "invalid signature");
+        }
+        checkState(sig.isCanonical());
+        return sig;
+    }
+
+    private boolean mustVerify() {
+        return switch (policy) {
+            case VERIFY_ALWAYS -> true;
+            case VERIFY_SAMPLED -> computed.sum() % sampleRate == 1 % sampleRate;
+            case TRUST -> false;
+        };
+    }
+
+    /**
+     * Return the number of signatures computed so far.
+     *
+     * @return the number of signatures computed
+     */
+    public long getComputedCount() {
+        return computed.sum();
+    }
+
+    /**
+     * Return the number of signatures retrieved from the cache so far.
+     *
+     * @return the number of cached signatures returned
+     */
+    public long getCachedCount() {
+        return cached.sum();
+    }
+
+    /**
+     * Return the number of signatures verified so far.
+     *
+     * @return the number of verified signatures
+     */
+    public long getVerifiedCount() {
+        return verified.sum();
+    }
+
+    /**
+     * Remove all the cached signatures.
+     */
+    public void invalidateCache() {
+        cache.invalidateAll();
+    }
+}
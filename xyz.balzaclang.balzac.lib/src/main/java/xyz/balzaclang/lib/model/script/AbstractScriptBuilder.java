@@ -21,9 +21,6 @@ import java.util.List;
 import org.bitcoinj.script.Script;
 import org.bitcoinj.script.ScriptBuilder;
 import org.bitcoinj.script.ScriptChunk;
-import org.bitcoinj.script.ScriptOpCodes;
-
-import com.google.common.collect.ImmutableList;
 
 /**
  * Extends BitcoinJ {@link ScriptBuilder} to provide better flexibility. This
@@ -118,7 +115,8 @@ public abstract class AbstractScriptBuilder<T extends AbstractScriptBuilder<T>>
 
     /**
      * Optimize this script builder. Removed the opcodes that don't change the
-     * semantic of the resulting script.
+     * semantic of the resulting script, and merge the opcodes that have a
+     * shorter equivalent.
      *
      * <table BORDER CELLPADDING=3 CELLSPACING=1> <caption>Examples of
      * optimization</caption>
@@ -142,13 +140,40 @@ public abstract class AbstractScriptBuilder<T extends AbstractScriptBuilder<T>>
      *
      * </td>
      * </tr>
+     * <tr>
+     * <td>
+     *
+     * <pre>
+     * ... EQUAL VERIFY ...
+     * </pre>
+     *
+     * </td>
+     * <td>
+     *
+     * <pre>
+     * ... EQUALVERIFY ...
+     * </pre>
+     *
+     * </td>
+     * </tr>
      * </table>
      *
      * @return this builder
+     * @see ScriptOptimizer#DEFAULT
      */
-    @SuppressWarnings("unchecked")
     public T optimize() {
-        List<ScriptChunk> chs = iterateOptimize(ImmutableList.copyOf(getChunks()));
+        return optimize(ScriptOptimizer.DEFAULT);
+    }
+
+    /**
+     * Optimize this script builder using the given optimizer.
+     *
+     * @param optimizer the optimizer
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T optimize(ScriptOptimizer optimizer) {
+        List<ScriptChunk> chs = optimizer.optimize(getChunks());
         this.getChunks().clear();
         this.getChunks().addAll(chs);
         return (T) this;
@@ -167,39 +192,4 @@ public abstract class AbstractScriptBuilder<T extends AbstractScriptBuilder<T>>
         };
         return sb.optimize().build();
     }
-
-    /*
-     * Repeat the optimization step
-     */
-    private static ImmutableList<ScriptChunk> iterateOptimize(ImmutableList<ScriptChunk> scriptChunks) {
-        ImmutableList<ScriptChunk> value = scriptChunks;
-        ImmutableList<ScriptChunk> newValue = optimize(scriptChunks);
-
-        while (!newValue.equals(value)) {
-            value = newValue;
-            newValue = optimize(value);
-        }
-        ;
-
-        return newValue;
-    }
-
-    /*
-     * Optimization step
-     */
-    private static ImmutableList<ScriptChunk> optimize(ImmutableList<ScriptChunk> scriptChunks) {
-        if (scriptChunks.size() == 0 || scriptChunks.size() == 1) {
-            return scriptChunks;
-        }
-
-        ScriptChunk ch1 = scriptChunks.get(0);
-        ScriptChunk ch2 = scriptChunks.get(1);
-
-        if (ch1.equalsOpCode(ScriptOpCodes.OP_TOALTSTACK) && ch2.equalsOpCode(ScriptOpCodes.OP_FROMALTSTACK)) {
-            return optimize(scriptChunks.subList(2, scriptChunks.size()));
-        }
-
-        return ImmutableList.<ScriptChunk>builder().add(scriptChunks.get(0))
-            .addAll(optimize(scriptChunks.subList(1, scriptChunks.size()))).build();
-    }
 }
@@ -29,8 +29,11 @@ import static org.bitcoinj.script.ScriptOpCodes.getOpCodeName;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyStoreException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -51,7 +54,9 @@ import org.bitcoinj.script.ScriptOpCodes;
 
 import xyz.balzaclang.lib.PrivateKeysStore;
 import xyz.balzaclang.lib.model.PrivateKey;
+import xyz.balzaclang.lib.model.Signer;
 import xyz.balzaclang.lib.model.script.primitives.Primitive;
+import xyz.balzaclang.lib.model.transaction.SighashEngine;
 import xyz.balzaclang.lib.utils.BitcoinUtils;
 import xyz.balzaclang.lib.utils.Env;
 import xyz.balzaclang.lib.utils.EnvI;
@@ -80,6 +85,9 @@ abstract public class AbstractScriptBuilderWithVar<T extends AbstractScriptBuild
     private static final long serialVersionUID = 1L;
     private static final String SIGNATURE_PREFIX = "[$sig$]";
     private static final String FREEVAR_PREFIX = "[$var$]";
+    private static final Charset PLACEHOLDER_CHARSET = StandardCharsets.UTF_8;
+    private static final byte[] SIGNATURE_PREFIX_BYTES = SIGNATURE_PREFIX.getBytes(PLACEHOLDER_CHARSET);
+    private static final byte[] FREEVAR_PREFIX_BYTES = FREEVAR_PREFIX.getBytes(PLACEHOLDER_CHARSET);
 
     private final Env<Primitive> env = new Env<>();
 
@@ -175,7 +183,7 @@ abstract public class AbstractScriptBuilderWithVar<T extends AbstractScriptBuild
         checkNotNull(hashType, "'hashType' cannot be null");
         SignatureUtil sig = new SignatureUtil(keyID, hashType, anyoneCanPay);
         String mapKey = sig.getUniqueKey();
-        byte[] data = (SIGNATURE_PREFIX + mapKey).getBytes();
+        byte[] data = (SIGNATURE_PREFIX + mapKey).getBytes(PLACEHOLDER_CHARSET);
         checkState(data.length < 256, "data too long: " + data.length);
         ScriptChunk chunk = new ScriptChunk(OP_PUSHDATA1, data);
         super.addChunk(chunk);
@@ -228,16 +236,35 @@ abstract public class AbstractScriptBuilderWithVar<T extends AbstractScriptBuild
      * @return a <b>copy</b> of this builder
      * @throws KeyStoreException if an error occurs retrieving private keys
      */
-    @SuppressWarnings("unchecked")
     public T setAllSignatures(PrivateKeysStore keystore, Transaction tx, int inputIndex, byte[] outScript, boolean isP2PKH)
         throws KeyStoreException {
+        return setAllSignatures(keystore, new SighashEngine(tx), inputIndex, outScript, isP2PKH, Signer.getDefault());
+    }
+
+    /**
+     * Replace all the signatures placeholder with the actual signatures,
+     * computed by the given signer. The signature hashes are computed by the
+     * given engine, which can be shared by all the inputs of the transaction.
+     *
+     * @param sighash    the signature hashes of the transaction to be signed
+     * @param inputIndex the index of the input that will contain this script
+     * @param outScript  the redeemed output script
+     * @param signer     the signer computing the signatures
+     * @return a <b>copy</b> of this builder
+     * @throws KeyStoreException if an error occurs retrieving private keys
+     */
+    @SuppressWarnings("unchecked")
+    public T setAllSignatures(PrivateKeysStore keystore, SighashEngine sighash, int inputIndex, byte[] outScript,
+        boolean isP2PKH, Signer signer) throws KeyStoreException {
+        checkNotNull(sighash, "'sighash' cannot be null");
+        checkNotNull(signer, "'signer' cannot be null");
 
-        List<ScriptChunk> newChunks = new ArrayList<>();
+        List<ScriptChunk> newChunks = new ArrayList<>(getChunks().size());
 
         for (ScriptChunk chunk : getChunks()) {
 
-            ScriptBuilderWithVar sb = new ScriptBuilderWithVar();
             if (isSignature(chunk)) {
+                ScriptBuilderWithVar sb = new ScriptBuilderWithVar();
                 String mapKey = getMapKey(chunk);
                 SignatureUtil sig = this.signatures.get(mapKey);
 
@@ -254,26 +281,22 @@ abstract public class AbstractScriptBuilderWithVar<T extends AbstractScriptBuild
                 checkState(keystore.containsKey(keyID), "key " + keyID + " not found on the specified keystore");
 
                 PrivateKey privkey = keystore.getKey(keyID);
-                ECKey key = ECKey.fromPrivate(privkey.getBytes());
+                ECKey key = keystore.getECKey(keyID);
                 SigHash hashType = sig.hashType;
                 boolean anyoneCanPay = sig.anyoneCanPay;
 
-                // create the signature
-                TransactionSignature txSig = tx.calculateSignature(inputIndex, key, outScript, hashType, anyoneCanPay);
-                Sha256Hash hash = tx.hashForSignature(inputIndex, outScript, (byte) txSig.sighashFlags);
-                boolean isValid = ECKey.verify(hash.getBytes(), txSig, privkey.toPublicKey().getBytes());
-                checkState(isValid);
-                checkState(txSig.isCanonical());
+                // create the signature, hashing the transaction once
+                Sha256Hash hash = sighash.hashForSignature(inputIndex, outScript, hashType, anyoneCanPay);
+                TransactionSignature txSig = signer.sign(hash, keyID, key, hashType, anyoneCanPay);
                 sb.data(txSig.encodeToBitcoin());
                 if (isP2PKH) {
                     sb.data(privkey.toPublicKey().getBytes());
                 }
+                newChunks.addAll(sb.getChunks());
             }
             else {
-                sb.addChunk(chunk);
+                newChunks.add(chunk);
             }
-
-            newChunks.addAll(sb.getChunks());
         }
         super.getChunks().clear();
         super.getChunks().addAll(newChunks);
@@ -377,24 +400,45 @@ abstract public class AbstractScriptBuilderWithVar<T extends AbstractScriptBuild
         return (T) this;
     }
 
+    /*
+     * Placeholders are data chunks starting with one of the prefixes. Chunks are
+     * classified comparing the raw bytes, without decoding them.
+     */
+    private static boolean hasPrefix(ScriptChunk ch, byte[] prefix) {
+        byte[] data = ch.data;
+        if (data == null || data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static boolean isSignature(ScriptChunk ch) {
-        return ch.data != null && new String(ch.data).startsWith(SIGNATURE_PREFIX);
+        return hasPrefix(ch, SIGNATURE_PREFIX_BYTES);
     }
 
     private static boolean isVariable(ScriptChunk ch) {
-        return ch.data != null && new String(ch.data).startsWith(FREEVAR_PREFIX);
+        return hasPrefix(ch, FREEVAR_PREFIX_BYTES);
     }
 
-    private static boolean isVariable(ScriptChunk ch, String name) {
-        return ch.data != null && new String(ch.data).equals(FREEVAR_PREFIX + name);
+    private static boolean isVariable(ScriptChunk ch, byte[] data) {
+        return Arrays.equals(ch.data, data);
     }
 
     private static String getVariableName(ScriptChunk ch) {
-        return new String(ch.data).substring(FREEVAR_PREFIX.length());
+        return decodeSuffix(ch, FREEVAR_PREFIX_BYTES);
     }
 
     private static String getMapKey(ScriptChunk ch) {
-        return new String(ch.data).substring(SIGNATURE_PREFIX.length());
+        return decodeSuffix(ch, SIGNATURE_PREFIX_BYTES);
+    }
+
+    private static String decodeSuffix(ScriptChunk ch, byte[] prefix) {
+        return new String(ch.data, prefix.length, ch.data.length - prefix.length, PLACEHOLDER_CHARSET);
     }
 
     protected String serializeChunk(ScriptChunk ch) {
@@ -540,19 +584,20 @@ abstract public class AbstractScriptBuilderWithVar<T extends AbstractScriptBuild
     }
 
     private void addVariableChunk(String name) {
-        byte[] data = (FREEVAR_PREFIX + name).getBytes();
+        byte[] data = (FREEVAR_PREFIX + name).getBytes(PLACEHOLDER_CHARSET);
         checkState(data.length < 256, "data too long: " + data.length);
         ScriptChunk chunk = new ScriptChunk(OP_PUSHDATA1, data);
         super.addChunk(chunk);
     }
 
     private void removeVariableChunk(String name) {
+        byte[] data = (FREEVAR_PREFIX + name).getBytes(PLACEHOLDER_CHARSET);
         ListIterator<ScriptChunk> it = getChunks().listIterator();
 
         while (it.hasNext()) {
             ScriptChunk next = it.next();
 
-            if (isVariable(next, name)) {
+            if (isVariable(next, data)) {
                 it.remove();
             }
         }
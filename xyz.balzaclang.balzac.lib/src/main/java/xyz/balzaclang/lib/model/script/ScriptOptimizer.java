@@ -0,0 +1,217 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.model.script;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.bitcoinj.script.ScriptOpCodes.OP_16;
+import static org.bitcoinj.script.ScriptOpCodes.OP_CHECKMULTISIG;
+import static org.bitcoinj.script.ScriptOpCodes.OP_CHECKMULTISIGVERIFY;
+import static org.bitcoinj.script.ScriptOpCodes.OP_CHECKSIG;
+import static org.bitcoinj.script.ScriptOpCodes.OP_CHECKSIGVERIFY;
+import static org.bitcoinj.script.ScriptOpCodes.OP_DROP;
+import static org.bitcoinj.script.ScriptOpCodes.OP_DUP;
+import static org.bitcoinj.script.ScriptOpCodes.OP_EQUAL;
+import static org.bitcoinj.script.ScriptOpCodes.OP_EQUALVERIFY;
+import static org.bitcoinj.script.ScriptOpCodes.OP_FROMALTSTACK;
+import static org.bitcoinj.script.ScriptOpCodes.OP_NOT;
+import static org.bitcoinj.script.ScriptOpCodes.OP_NUMEQUAL;
+import static org.bitcoinj.script.ScriptOpCodes.OP_NUMEQUALVERIFY;
+import static org.bitcoinj.script.ScriptOpCodes.OP_TOALTSTACK;
+import static org.bitcoinj.script.ScriptOpCodes.OP_VERIFY;
+import static org.bitcoinj.script.ScriptOpCodes.getOpCodeName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bitcoinj.script.ScriptChunk;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Peephole optimizer for scripts.
+ * <p>
+ * The chunks are read once, from left to right, and pushed onto the optimized
+ * script. After each push, the rules are matched against the tail of the
+ * optimized script: when a rule matches, the tail is replaced and the rules are
+ * tried again, so that nested patterns like
+ * {@code TOALTSTACK TOALTSTACK FROMALTSTACK FROMALTSTACK} are collapsed within
+ * the same scan.
+ * </p>
+ *
+ * @see AbstractScriptBuilder#optimize()
+ */
+public class ScriptOptimizer {
+
+    /**
+     * Replace a sequence of opcodes with a shorter one.
+     */
+    public static final class Rule {
+
+        private final int[] pattern;
+        private final int[] replacement;
+
+        private Rule(int[] pattern, int[] replacement) {
+            this.pattern = pattern;
+            this.replacement = replacement;
+        }
+
+        /**
+         * Create a rule replacing the given opcodes. Only non-push opcodes are
+         * allowed, and the replacement must be shorter than the pattern.
+         *
+         * @param pattern     the opcodes to be replaced
+         * @param replacement the opcodes replacing the pattern, possibly none
+         * @return a new rule
+         */
+        public static Rule replace(int[] pattern, int... replacement) {
+            checkNotNull(pattern, "'pattern' cannot be null");
+            checkNotNull(replacement, "'replacement' cannot be null");
+            checkArgument(pattern.length > 0, "'pattern' cannot be empty");
+            checkArgument(replacement.length < pattern.length, "'replacement' must be shorter than 'pattern'");
+            checkArgument(Arrays.stream(pattern).allMatch(op -> op > OP_16), "'pattern' must contain only opcodes");
+            checkArgument(Arrays.stream(replacement).allMatch(op -> op > OP_16),
+                "'replacement' must contain only opcodes");
+            return new Rule(pattern.clone(), replacement.clone());
+        }
+
+        private boolean matches(List<ScriptChunk> chunks) {
+            int offset = chunks.size() - pattern.length;
+            if (offset < 0) {
+                return false;
+            }
+            for (int i = 0; i < pattern.length; i++) {
+                if (!chunks.get(offset + i).equalsOpCode(pattern[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder str = new StringBuilder();
+            for (int op : pattern) {
+                str.append(getOpCodeName(op)).append(" ");
+            }
+            str.append("->");
+            for (int op : replacement) {
+                str.append(" ").append(getOpCodeName(op));
+            }
+            return str.toString();
+        }
+    }
+
+    /** {@code TOALTSTACK FROMALTSTACK} leaves the stacks unchanged */
+    public static final Rule ALTSTACK_ROUNDTRIP = Rule.replace(new int[] { OP_TOALTSTACK, OP_FROMALTSTACK });
+
+    /**
+     * {@code DUP DROP} leaves the stack unchanged, provided that the stack is
+     * not empty: {@code DUP} fails on an empty stack, so removing the pair can
+     * turn a failing script into a succeeding one. For this reason, this rule
+     * is not part of the {@link #DEFAULT default} optimizer.
+     */
+    public static final Rule DUP_DROP = Rule.replace(new int[] { OP_DUP, OP_DROP });
+
+    /** {@code EQUAL VERIFY} is {@code EQUALVERIFY} */
+    public static final Rule EQUAL_VERIFY = Rule.replace(new int[] { OP_EQUAL, OP_VERIFY }, OP_EQUALVERIFY);
+
+    /** {@code NUMEQUAL VERIFY} is {@code NUMEQUALVERIFY} */
+    public static final Rule NUMEQUAL_VERIFY = Rule.replace(new int[] { OP_NUMEQUAL, OP_VERIFY }, OP_NUMEQUALVERIFY);
+
+    /** {@code CHECKSIG VERIFY} is {@code CHECKSIGVERIFY} */
+    public static final Rule CHECKSIG_VERIFY = Rule.replace(new int[] { OP_CHECKSIG, OP_VERIFY }, OP_CHECKSIGVERIFY);
+
+    /** {@code CHECKMULTISIG VERIFY} is {@code CHECKMULTISIGVERIFY} */
+    public static final Rule CHECKMULTISIG_VERIFY = Rule.replace(new int[] { OP_CHECKMULTISIG, OP_VERIFY },
+        OP_CHECKMULTISIGVERIFY);
+
+    /**
+     * {@code NOT NOT VERIFY} is {@code VERIFY}, provided that the top of the
+     * stack is a valid number: {@code NOT} fails on operands longer than 4
+     * bytes, while {@code VERIFY} does not. For this reason, this rule is not
+     * part of the {@link #DEFAULT default} optimizer.
+     */
+    public static final Rule NOT_NOT_VERIFY = Rule.replace(new int[] { OP_NOT, OP_NOT, OP_VERIFY }, OP_VERIFY);
+
+    /**
+     * The optimizer used by {@link AbstractScriptBuilder#optimize()}. It only
+     * removes altstack round trips and merges an opcode followed by
+     * {@code VERIFY} into its {@code VERIFY} variant.
+     */
+    public static final ScriptOptimizer DEFAULT = new ScriptOptimizer(ALTSTACK_ROUNDTRIP, EQUAL_VERIFY,
+        NUMEQUAL_VERIFY, CHECKSIG_VERIFY, CHECKMULTISIG_VERIFY);
+
+    private final ImmutableList<Rule> rules;
+
+    public ScriptOptimizer(Rule... rules) {
+        this(Arrays.asList(rules));
+    }
+
+    public ScriptOptimizer(List<Rule> rules) {
+        checkNotNull(rules, "'rules' cannot be null");
+        this.rules = ImmutableList.copyOf(rules);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Return a new optimizer applying the rules of this one and the given ones.
+     *
+     * @param others the rules to add
+     * @return a new optimizer
+     */
+    public ScriptOptimizer with(Rule... others) {
+        return new ScriptOptimizer(ImmutableList.<Rule>builder().addAll(rules).add(others).build());
+    }
+
+    /**
+     * Optimize the given chunks, returning a new list.
+     *
+     * @param chunks the chunks to optimize
+     * @return the optimized chunks
+     */
+    public List<ScriptChunk> optimize(List<ScriptChunk> chunks) {
+        checkNotNull(chunks, "'chunks' cannot be null");
+        List<ScriptChunk> result = new ArrayList<>(chunks.size());
+        for (ScriptChunk ch : chunks) {
+            push(result, ch);
+        }
+        return result;
+    }
+
+    /*
+     * Push the chunk and rewrite the tail. The recursion depth is bounded by the
+     * length of the replacements, since each of them is shorter than its pattern.
+     */
+    private void push(List<ScriptChunk> result, ScriptChunk ch) {
+        result.add(ch);
+        for (Rule rule : rules) {
+            if (rule.matches(result)) {
+                int size = result.size();
+                result.subList(size - rule.pattern.length, size).clear();
+                for (int op : rule.replacement) {
+                    push(result, new ScriptChunk(op, null));
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.bitcoinj.core.Sha256Hash;
+
+/**
+ * Computes the fingerprints of transaction builders, reusing the ones of the
+ * ancestors already computed within this context.
+ * <p>
+ * A fingerprint identifies the transaction a builder converts to, without
+ * signing it: it is a hash of the unsigned transaction, where the signatures
+ * are represented by their key and modifier, the free variables by their
+ * bindings, and the parent transactions by their fingerprints. Since
+ * signatures are deterministic, builders of the same kind with the same
+ * fingerprint build the same transaction. The fingerprint of a serialized
+ * transaction is its id, so a user-defined builder and a serialized one never
+ * have the same fingerprint.
+ * </p>
+ * <p>
+ * Builders are compared by identity. A context is not thread-safe and does not
+ * track later changes of the builders.
+ * </p>
+ *
+ * @see MaterializationContext
+ */
+public class FingerprintContext {
+
+    private final Map<ITransactionBuilder, Sha256Hash> fingerprints = new IdentityHashMap<>();
+
+    /**
+     * Return the fingerprint of the given builder, computing it if it was not
+     * already computed within this context.
+     *
+     * @param builder the builder
+     * @return the fingerprint of the builder
+     */
+    public Sha256Hash fingerprint(ITransactionBuilder builder) {
+        checkNotNull(builder, "'builder' cannot be null");
+        // do not use computeIfAbsent: the computation is recursive on the ancestors
+        Sha256Hash fingerprint = fingerprints.get(builder);
+        if (fingerprint == null) {
+            fingerprint = builder.fingerprint(this);
+            fingerprints.put(builder, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+}
@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.Serializable;
 import java.util.List;
 
+import org.bitcoinj.core.Sha256Hash;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.core.Utils;
 
@@ -46,7 +47,42 @@ public interface ITransactionBuilder extends Serializable {
      *               building.
      * @return a bitcoinj transaction.
      */
-    public abstract Transaction toTransaction(PrivateKeysStore kstore);
+    public default Transaction toTransaction(PrivateKeysStore kstore) {
+        return new MaterializationContext(kstore).materialize(this);
+    }
+
+    /**
+     * Create a bitcoinj transaction, reusing the ancestors already materialized
+     * within the given context. This method assumes that this builder
+     * {@link #isReady()}.
+     *
+     * @param context the materialization context, which provides the keystore
+     *                and the transactions already built.
+     * @return a bitcoinj transaction.
+     * @see MaterializationContext#materialize(ITransactionBuilder)
+     */
+    public abstract Transaction toTransaction(MaterializationContext context);
+
+    /**
+     * Return a fingerprint of the transaction this builder converts to, without
+     * signing it.
+     *
+     * @return the fingerprint
+     * @see FingerprintContext
+     */
+    public default Sha256Hash fingerprint() {
+        return new FingerprintContext().fingerprint(this);
+    }
+
+    /**
+     * Compute the fingerprint of this builder, reusing the fingerprints of the
+     * ancestors already computed within the given context.
+     *
+     * @param context the fingerprint context
+     * @return the fingerprint
+     * @see FingerprintContext#fingerprint(ITransactionBuilder)
+     */
+    public abstract Sha256Hash fingerprint(FingerprintContext context);
 
     /**
      * Return the inputs.
@@ -105,21 +141,34 @@ public interface ITransactionBuilder extends Serializable {
     }
 
     public static boolean equals(ITransactionBuilder a, ITransactionBuilder b, PrivateKeysStore kstore) {
+        return equals(a, b, new MaterializationContext(kstore));
+    }
+
+    /**
+     * Compare the given builders, materializing them within the given context.
+     *
+     * @param a       a builder
+     * @param b       another builder
+     * @param context the context used to materialize the builders
+     * @return true if the builders represent the same transaction
+     */
+    public static boolean equals(ITransactionBuilder a, ITransactionBuilder b, MaterializationContext context) {
         checkNotNull(a);
         checkNotNull(b);
+        checkNotNull(context, "'context' cannot be null");
         if (a instanceof TransactionBuilder && b instanceof TransactionBuilder) {
             if (a.isReady() && b.isReady())
-                return a.toTransaction(kstore).equals(b.toTransaction(kstore));
+                return context.materialize(a).equals(context.materialize(b));
             return a.equals(b);
         }
         else if (a instanceof SerialTransactionBuilder && b instanceof SerialTransactionBuilder) {
             return a.equals(b);
         }
         else if (a instanceof TransactionBuilder && b instanceof SerialTransactionBuilder) {
-            return a.isReady() && a.toTransaction(kstore).equals(b.toTransaction(kstore));
+            return a.isReady() && context.materialize(a).equals(context.materialize(b));
         }
         else if (a instanceof SerialTransactionBuilder && b instanceof TransactionBuilder) {
-            return b.isReady() && b.toTransaction(kstore).equals(a.toTransaction(kstore));
+            return b.isReady() && context.materialize(b).equals(context.materialize(a));
         }
         throw new IllegalArgumentException("Not reachable");
     }
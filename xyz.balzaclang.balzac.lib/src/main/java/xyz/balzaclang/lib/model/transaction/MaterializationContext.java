@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.model.transaction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.bitcoinj.core.Transaction;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+
+/**
+ * Keep track of the transactions already built from their builders, in order
+ * to materialize each node of the ancestors DAG exactly once.
+ * <p>
+ * Builders are compared by identity: two distinct but equal builders are
+ * materialized separately. A context is not thread-safe and is meant to be
+ * used for a single conversion (or a bunch of related ones), since it does not
+ * track later changes of the builders.
+ * </p>
+ *
+ * @see ParallelMaterializationContext
+ */
+public class MaterializationContext {
+
+    private final PrivateKeysStore keystore;
+    private final Map<ITransactionBuilder, Transaction> materialized;
+
+    public MaterializationContext(PrivateKeysStore keystore) {
+        this(keystore, new IdentityHashMap<>());
+    }
+
+    /*
+     * The map must compare the builders by identity
+     */
+    MaterializationContext(PrivateKeysStore keystore, Map<ITransactionBuilder, Transaction> materialized) {
+        this.keystore = keystore;
+        this.materialized = materialized;
+    }
+
+    /**
+     * Return the keystore containing the private keys needed for transaction
+     * building.
+     *
+     * @return the keystore, possibly null
+     */
+    public PrivateKeysStore getKeystore() {
+        return keystore;
+    }
+
+    /**
+     * Return the transaction built from the given builder, building it if it was
+     * not already materialized within this context.
+     *
+     * @param builder the builder to materialize
+     * @return a bitcoinj transaction
+     */
+    public Transaction materialize(ITransactionBuilder builder) {
+        checkNotNull(builder, "'builder' cannot be null");
+        // do not use computeIfAbsent: building a transaction recursively
+        // materializes its ancestors within this context
+        Transaction tx = materialized.get(builder);
+        if (tx == null) {
+            tx = builder.toTransaction(this);
+            materialized.put(builder, tx);
+        }
+        return tx;
+    }
+
+    public boolean isMaterialized(ITransactionBuilder builder) {
+        return materialized.containsKey(builder);
+    }
+
+    public int size() {
+        return materialized.size();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.model.transaction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.bitcoinj.core.Transaction;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+
+/**
+ * A {@link MaterializationContext} that builds independent ancestors
+ * concurrently on a {@link ForkJoinPool}.
+ * <p>
+ * Before building a transaction, the parents of its inputs are forked, so that
+ * sibling subtrees (and their signatures) are computed in parallel. Each
+ * builder is associated with exactly one task, shared by all the children that
+ * redeem it, so each node of the ancestors DAG is still built once.
+ * </p>
+ */
+public class ParallelMaterializationContext extends MaterializationContext {
+
+    private final ForkJoinPool pool;
+    private final Map<ITransactionBuilder, ForkJoinTask<Transaction>> tasks = Collections
+        .synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Create a context that uses the {@link ForkJoinPool#commonPool() common
+     * pool}.
+     *
+     * @param keystore a keystore containing the private keys needed for
+     *                 transaction building.
+     */
+    public ParallelMaterializationContext(PrivateKeysStore keystore) {
+        this(keystore, ForkJoinPool.commonPool());
+    }
+
+    public ParallelMaterializationContext(PrivateKeysStore keystore, ForkJoinPool pool) {
+        super(keystore);
+        checkNotNull(pool, "'pool' cannot be null");
+        this.pool = pool;
+    }
+
+    @Override
+    public Transaction materialize(ITransactionBuilder builder) {
+        checkNotNull(builder, "'builder' cannot be null");
+        if (ForkJoinTask.getPool() == pool) {
+            return submit(builder).join();
+        }
+        // enter the pool
+        return pool.invoke(new RecursiveTask<Transaction>() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Transaction compute() {
+                return submit(builder).join();
+            }
+        });
+    }
+
+    @Override
+    public boolean isMaterialized(ITransactionBuilder builder) {
+        ForkJoinTask<Transaction> task = tasks.get(builder);
+        return task != null && task.isDone() && !task.isCompletedAbnormally();
+    }
+
+    @Override
+    public int size() {
+        synchronized (tasks) {
+            return (int) tasks.values().stream().filter(ForkJoinTask::isDone).count();
+        }
+    }
+
+    /*
+     * Return the task building the given builder. The task is forked only by the
+     * caller that creates it, the others just join it.
+     */
+    private ForkJoinTask<Transaction> submit(ITransactionBuilder builder) {
+        MaterializeTask task;
+        synchronized (tasks) {
+            ForkJoinTask<Transaction> existing = tasks.get(builder);
+            if (existing != null) {
+                return existing;
+            }
+            task = new MaterializeTask(builder);
+            tasks.put(builder, task);
+        }
+        return task.fork();
+    }
+
+    private class MaterializeTask extends RecursiveTask<Transaction> {
+
+        private static final long serialVersionUID = 1L;
+        private final transient ITransactionBuilder builder;
+
+        private MaterializeTask(ITransactionBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        protected Transaction compute() {
+            // start the independent branches, the builder will join them while
+            // materializing its inputs
+            for (Input input : builder.getInputs()) {
+                if (input.hasParentTx()) {
+                    submit(input.getParentTx());
+                }
+            }
+            return builder.toTransaction(ParallelMaterializationContext.this);
+        }
+    }
+}
@@ -19,11 +19,11 @@ import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.bitcoinj.core.Sha256Hash;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.script.Script;
 import org.bitcoinj.script.ScriptPattern;
 
-import xyz.balzaclang.lib.PrivateKeysStore;
 import xyz.balzaclang.lib.model.NetworkType;
 import xyz.balzaclang.lib.model.script.InputScript;
 import xyz.balzaclang.lib.model.script.OutputScript;
@@ -55,10 +55,15 @@ public class SerialTransactionBuilder implements ITransactionBuilder {
     }
 
     @Override
-    public Transaction toTransaction(PrivateKeysStore kstore) {
+    public Transaction toTransaction(MaterializationContext context) {
         return getTx();
     }
 
+    @Override
+    public Sha256Hash fingerprint(FingerprintContext context) {
+        return getTx().getTxId();
+    }
+
     @Override
     public boolean isCoinbase() {
         return getTx().isCoinBase();
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.model.transaction;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.bitcoinj.script.ScriptOpCodes.OP_CODESEPARATOR;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.Transaction.SigHash;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.core.UnsafeByteArrayOutputStream;
+import org.bitcoinj.core.Utils;
+import org.bitcoinj.core.VarInt;
+import org.bitcoinj.crypto.TransactionSignature;
+import org.bitcoinj.script.Script;
+
+/**
+ * Compute the (legacy) signature hashes of a transaction.
+ * <p>
+ * The serialization of the outpoints and of the outputs is computed once, when
+ * the engine is created, and shared by all the hashes. Each hash is memoized by
+ * input index, script and sighash flags, so that signing the same input with
+ * several keys hashes the transaction once. The engine is thread-safe.
+ * </p>
+ * <p>
+ * Input scripts are never part of the signature hash: once created, the engine
+ * is valid as long as the inputs (apart from their scripts), the outputs, the
+ * version and the locktime of the transaction do not change.
+ * </p>
+ *
+ * @see Transaction#hashForSignature(int, byte[], byte)
+ */
+public class SighashEngine {
+
+    /* The hash of SIGHASH_SINGLE when there is no output with the same index of the input */
+    private static final Sha256Hash SIGHASH_SINGLE_BUG = Sha256Hash
+        .wrap("0100000000000000000000000000000000000000000000000000000000000000");
+
+    /* An output with value -1 and empty script, used by SIGHASH_SINGLE */
+    private static final byte[] NULL_OUTPUT = new byte[] { -1, -1, -1, -1, -1, -1, -1, -1, 0 };
+
+    private static final byte[] EMPTY_SCRIPT = new byte[] {};
+
+    private record Key(int inputIndex, ByteBuffer script, byte sigHashType) {
+    }
+
+    private final Transaction tx;
+    private final boolean legacy;
+    private final long version;
+    private final long locktime;
+    private final byte[][] outpoints;
+    private final long[] sequences;
+    private final byte[][] outputs;
+    private final int outputsSize;
+    private final Map<Key, Sha256Hash> hashes = new ConcurrentHashMap<>();
+
+    public SighashEngine(Transaction tx) {
+        checkNotNull(tx, "'tx' cannot be null");
+        this.tx = tx;
+        // the witness serialization is left to bitcoinj
+        this.legacy = !tx.hasWitnesses();
+        this.version = tx.getVersion();
+        this.locktime = tx.getLockTime();
+
+        List<TransactionInput> inputs = tx.getInputs();
+        this.outpoints = new byte[inputs.size()][];
+        this.sequences = new long[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            outpoints[i] = inputs.get(i).getOutpoint().bitcoinSerialize();
+            sequences[i] = inputs.get(i).getSequenceNumber();
+        }
+
+        List<TransactionOutput> txOutputs = tx.getOutputs();
+        this.outputs = new byte[txOutputs.size()][];
+        int size = 0;
+        for (int i = 0; i < txOutputs.size(); i++) {
+            outputs[i] = txOutputs.get(i).bitcoinSerialize();
+            size += outputs[i].length;
+        }
+        this.outputsSize = size;
+    }
+
+    public Transaction getTransaction() {
+        return tx;
+    }
+
+    /**
+     * Return the signature hash of the given input.
+     *
+     * @param inputIndex   the index of the input to be signed
+     * @param script       the script of the redeemed output (or its redeem
+     *                     script)
+     * @param type         the signature modifier
+     * @param anyoneCanPay the signature modifier
+     * @return the signature hash
+     */
+    public Sha256Hash hashForSignature(int inputIndex, byte[] script, SigHash type, boolean anyoneCanPay) {
+        checkNotNull(type, "'type' cannot be null");
+        return hashForSignature(inputIndex, script, (byte) TransactionSignature.calcSigHashValue(type, anyoneCanPay));
+    }
+
+    /**
+     * Return the signature hash of the given input.
+     *
+     * @param inputIndex  the index of the input to be signed
+     * @param script      the script of the redeemed output (or its redeem
+     *                    script)
+     * @param sigHashType the sighash flags
+     * @return the signature hash
+     */
+    public Sha256Hash hashForSignature(int inputIndex, byte[] script, byte sigHashType) {
+        checkElementIndex(inputIndex, outpoints.length, "'inputIndex'");
+        checkNotNull(script, "'script' cannot be null");
+        Key key = new Key(inputIndex, ByteBuffer.wrap(script.clone()), sigHashType);
+        return hashes.computeIfAbsent(key, k -> computeHash(k.inputIndex, k.script.array(), k.sigHashType));
+    }
+
+    /**
+     * Return the number of distinct signature hashes computed so far.
+     *
+     * @return the number of memoized hashes
+     */
+    public int size() {
+        return hashes.size();
+    }
+
+    /*
+     * Serialize the transaction as Transaction#hashForSignature does, without
+     * copying it
+     */
+    private Sha256Hash computeHash(int inputIndex, byte[] script, byte sigHashType) {
+        if (!legacy) {
+            return tx.hashForSignature(inputIndex, script, sigHashType);
+        }
+
+        int type = sigHashType & 0x1f;
+        boolean none = type == SigHash.NONE.value;
+        boolean single = type == SigHash.SINGLE.value;
+        boolean anyoneCanPay = (sigHashType & SigHash.ANYONECANPAY.value) == SigHash.ANYONECANPAY.value;
+
+        if (single && inputIndex >= outputs.length) {
+            return SIGHASH_SINGLE_BUG;
+        }
+
+        byte[] connectedScript = Script.removeAllInstancesOfOp(script, OP_CODESEPARATOR);
+
+        try {
+            UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(
+                64 + outpoints.length * 41 + connectedScript.length + outputsSize);
+            Utils.uint32ToByteStreamLE(version, bos);
+
+            // inputs
+            if (anyoneCanPay) {
+                bos.write(new VarInt(1).encode());
+                writeInput(bos, inputIndex, connectedScript, sequences[inputIndex]);
+            }
+            else {
+                bos.write(new VarInt(outpoints.length).encode());
+                for (int i = 0; i < outpoints.length; i++) {
+                    if (i == inputIndex) {
+                        writeInput(bos, i, connectedScript, sequences[i]);
+                    }
+                    else {
+                        writeInput(bos, i, EMPTY_SCRIPT, none || single ? 0 : sequences[i]);
+                    }
+                }
+            }
+
+            // outputs
+            if (none) {
+                bos.write(new VarInt(0).encode());
+            }
+            else if (single) {
+                bos.write(new VarInt(inputIndex + 1).encode());
+                for (int i = 0; i < inputIndex; i++) {
+                    bos.write(NULL_OUTPUT);
+                }
+                bos.write(outputs[inputIndex]);
+            }
+            else {
+                bos.write(new VarInt(outputs.length).encode());
+                for (byte[] output : outputs) {
+                    bos.write(output);
+                }
+            }
+
+            Utils.uint32ToByteStreamLE(locktime, bos);
+            Utils.uint32ToByteStreamLE(0x000000ff & sigHashType, bos);
+            return Sha256Hash.twiceOf(bos.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeInput(UnsafeByteArrayOutputStream bos, int index, byte[] script, long sequence)
+        throws IOException {
+        bos.write(outpoints[index]);
+        bos.write(new VarInt(script.length).encode());
+        bos.write(script);
+        Utils.uint32ToByteStreamLE(sequence, bos);
+    }
+}
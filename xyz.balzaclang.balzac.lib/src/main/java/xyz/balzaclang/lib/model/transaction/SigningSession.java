@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.model.transaction;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.crypto.TransactionSignature;
+
+import com.google.common.collect.MapMaker;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.PrivateKey;
+import xyz.balzaclang.lib.model.Signature;
+import xyz.balzaclang.lib.model.SignatureModifier;
+import xyz.balzaclang.lib.model.Signer;
+
+/**
+ * Compute many signatures of the same transactions.
+ * <p>
+ * Each transaction builder is materialized once within the session, together
+ * with its ancestors, and its signature hashes are shared by all the
+ * signatures of its inputs. Builders are compared by identity and referenced
+ * weakly, so that a session can be kept for a whole file. As for
+ * {@link MaterializationContext}, a session does not track later changes of the
+ * builders: a builder must not be modified after it has been signed.
+ * </p>
+ *
+ * @see Signature#computeSignature(PrivateKey, ITransactionBuilder,
+ *      PrivateKeysStore, int, SignatureModifier)
+ */
+public class SigningSession {
+
+    private final MaterializationContext context;
+    private final Signer signer;
+    private final Map<ITransactionBuilder, SighashEngine> engines = new MapMaker().weakKeys().makeMap();
+
+    public SigningSession(PrivateKeysStore keystore) {
+        this(keystore, Signer.getDefault());
+    }
+
+    public SigningSession(PrivateKeysStore keystore, Signer signer) {
+        this(new MaterializationContext(keystore, new MapMaker().weakKeys().makeMap()), signer);
+    }
+
+    /**
+     * Create a session that materializes the transactions within the given
+     * context.
+     *
+     * @param context the context of the materialized transactions
+     * @param signer  the signer computing the signatures
+     */
+    public SigningSession(MaterializationContext context, Signer signer) {
+        checkNotNull(context, "'context' cannot be null");
+        checkNotNull(signer, "'signer' cannot be null");
+        this.context = context;
+        this.signer = signer;
+    }
+
+    public MaterializationContext getContext() {
+        return context;
+    }
+
+    public Signer getSigner() {
+        return signer;
+    }
+
+    /**
+     * Sign the given input of the transaction, materializing it if it was not
+     * already done within this session.
+     *
+     * @param key        the private key
+     * @param txBuilder  the transaction to be signed
+     * @param inputIndex the index of the input
+     * @param modifier   the signature modifier
+     * @return the signature, along with the public key of {@code key}
+     */
+    public synchronized Signature sign(PrivateKey key, ITransactionBuilder txBuilder, int inputIndex,
+        SignatureModifier modifier) {
+        checkNotNull(key, "'key' cannot be null");
+        checkNotNull(txBuilder, "'txBuilder' cannot be null");
+        checkNotNull(modifier, "'modifier' cannot be null");
+        checkElementIndex(inputIndex, txBuilder.getInputs().size(), "'inputIndex'");
+        return sign(key, getSighashEngine(txBuilder), outputScript(txBuilder, inputIndex), inputIndex, modifier);
+    }
+
+    /**
+     * Sign the given input of the transaction with each of the keys.
+     *
+     * @param keys       the private keys
+     * @param txBuilder  the transaction to be signed
+     * @param inputIndex the index of the input
+     * @param modifier   the signature modifier
+     * @return the signatures, in the same order of the keys
+     */
+    public synchronized List<Signature> signAll(List<PrivateKey> keys, ITransactionBuilder txBuilder, int inputIndex,
+        SignatureModifier modifier) {
+        checkNotNull(keys, "'keys' cannot be null");
+        List<Signature> signatures = new ArrayList<>(keys.size());
+        for (PrivateKey key : keys) {
+            signatures.add(sign(key, txBuilder, inputIndex, modifier));
+        }
+        return signatures;
+    }
+
+    /**
+     * Sign the given input of an already materialized transaction.
+     *
+     * @param key          the private key
+     * @param sighash      the signature hashes of the transaction to be signed
+     * @param outputScript the script of the output redeemed by the input
+     * @param inputIndex   the index of the input
+     * @param modifier     the signature modifier
+     * @return the signature, along with the public key of {@code key}
+     */
+    public Signature sign(PrivateKey key, SighashEngine sighash, byte[] outputScript, int inputIndex,
+        SignatureModifier modifier) {
+        checkNotNull(key, "'key' cannot be null");
+        checkNotNull(sighash, "'sighash' cannot be null");
+        checkNotNull(modifier, "'modifier' cannot be null");
+        Sha256Hash hash = sighash.hashForSignature(inputIndex, outputScript, modifier.toHashType(),
+            modifier.toAnyoneCanPay());
+        TransactionSignature sig = signer.sign(hash, PrivateKeysStore.getUniqueID(key),
+            ECKey.fromPrivate(key.getBytes()), modifier.toHashType(), modifier.toAnyoneCanPay());
+        return new Signature(sig.encodeToBitcoin(), key.toPublicKey());
+    }
+
+    /**
+     * Return the signature hashes of the given transaction, materializing it if
+     * it was not already done within this session.
+     *
+     * @param txBuilder the transaction builder
+     * @return the signature hashes of the materialized transaction
+     */
+    public synchronized SighashEngine getSighashEngine(ITransactionBuilder txBuilder) {
+        checkNotNull(txBuilder, "'txBuilder' cannot be null");
+        SighashEngine engine = engines.get(txBuilder);
+        if (engine == null) {
+            engine = new SighashEngine(context.materialize(txBuilder));
+            engines.put(txBuilder, engine);
+        }
+        return engine;
+    }
+
+    /*
+     * The script of the output redeemed by the given input
+     */
+    private static byte[] outputScript(ITransactionBuilder txBuilder, int inputIndex) {
+        Input input = txBuilder.getInputs().get(inputIndex);
+        Output output = input.getParentTx().getOutputs().get(input.getOutIndex());
+        return output.getScript().build().getProgram();
+    }
+}
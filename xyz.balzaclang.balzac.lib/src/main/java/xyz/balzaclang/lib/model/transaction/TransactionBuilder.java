@@ -20,20 +20,25 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyStoreException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Sha256Hash;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.core.TransactionInput;
 import org.bitcoinj.core.TransactionOutPoint;
@@ -41,10 +46,12 @@ import org.bitcoinj.script.Script;
 import org.bitcoinj.script.ScriptPattern;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 
-import xyz.balzaclang.lib.PrivateKeysStore;
 import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.model.Signer;
+import xyz.balzaclang.lib.model.script.AbstractScriptBuilderWithVar;
 import xyz.balzaclang.lib.model.script.InputScript;
 import xyz.balzaclang.lib.model.script.OutputScript;
 import xyz.balzaclang.lib.model.script.primitives.Primitive;
@@ -66,6 +73,15 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
     private final Env<Primitive> env = new Env<>();
 
     private final Map<Set<String>, Consumer<Map<String, Primitive>>> variablesHook = new HashMap<>();
+    // for each variable, the hooks depending on it
+    private final Map<String, List<Set<String>>> hooksByVariable = new HashMap<>();
+    // for each hook, the number of its variables that are still free
+    private final Map<Set<String>, Integer> hooksFreeCount = new HashMap<>();
+
+    // cached result of isReady(), null if it must be computed again
+    private transient volatile Boolean ready;
+    // the builders redeeming this one, compared by identity and weakly referenced
+    private transient Set<TransactionBuilder> dependents;
 
     public TransactionBuilder(NetworkType params) {
         this.params = params;
@@ -109,6 +125,7 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
     @Override
     public TransactionBuilder addVariable(String name, Class<? extends Primitive> type) {
         env.addVariable(name, type);
+        invalidateReady();
         return this;
     }
 
@@ -123,27 +140,53 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
                 "output script " + out.getScript() + " use variable '" + name + "'");
         }
         env.removeVariable(name);
-        variablesHook.remove(ImmutableSet.of(name));
+        invalidateReady();
+        Set<String> hookVariables = ImmutableSet.of(name);
+        if (variablesHook.remove(hookVariables) != null) {
+            hooksFreeCount.remove(hookVariables);
+            List<Set<String>> hooks = hooksByVariable.get(name);
+            hooks.remove(hookVariables);
+            if (hooks.isEmpty()) {
+                hooksByVariable.remove(name);
+            }
+        }
         return this;
     }
 
     @Override
     public TransactionBuilder bindVariable(String name, Primitive value) {
         env.bindVariable(name, value);
-        Iterator<Set<String>> it = variablesHook.keySet().iterator();
-        while (it.hasNext()) {
-            Set<String> variables = it.next();
-            boolean allBound = variables.stream().allMatch(this::isBound);
-            if (allBound) {
-                Map<String, Primitive> values = variables.stream().collect(Collectors.toMap(v -> v, v -> getValue(v)));
-                Consumer<Map<String, Primitive>> hook = variablesHook.get(variables);
-                hook.accept(values); // execute the hook
-                it.remove(); // remove the hook
+        invalidateReady();
+        // only the hooks depending on 'name' can become ready
+        List<Set<String>> hooks = hooksByVariable.remove(name);
+        if (hooks != null) {
+            for (Set<String> variables : hooks) {
+                int freeCount = hooksFreeCount.merge(variables, -1, Integer::sum);
+                if (freeCount == 0) {
+                    hooksFreeCount.remove(variables);
+                    runHook(variables);
+                }
             }
         }
         return this;
     }
 
+    /*
+     * Execute and remove the hook for the given variables
+     */
+    private void runHook(Set<String> variables) {
+        Map<String, Primitive> values = new HashMap<>();
+        for (String v : variables) {
+            if (!hasVariable(v) || !isBound(v)) {
+                // the variable was removed after the hook creation
+                return;
+            }
+            values.put(v, getValue(v));
+        }
+        Consumer<Map<String, Primitive>> hook = variablesHook.remove(variables);
+        hook.accept(values); // execute the hook
+    }
+
     /**
      * Add an hook that will be executed when all the variable {@code names} will
      * have been bound. The hook is a {@link Consumer} that will take the value of
@@ -163,7 +206,12 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
         }
         checkArgument(!variablesHook.containsKey(ImmutableSet.copyOf(names)),
             "an hook for variables " + names + " is already defined");
-        variablesHook.put(ImmutableSet.copyOf(names), hook);
+        Set<String> variables = ImmutableSet.copyOf(names);
+        variablesHook.put(variables, hook);
+        hooksFreeCount.put(variables, variables.size());
+        for (String name : variables) {
+            hooksByVariable.computeIfAbsent(name, k -> new ArrayList<>()).add(variables);
+        }
         return this;
     }
 
@@ -186,6 +234,7 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
     @Override
     public void clear() {
         env.clear();
+        invalidateReady();
     }
 
     @Override
@@ -303,6 +352,10 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
                     + getType(fv));
         }
         inputs.add(input);
+        if (input.hasParentTx() && input.getParentTx() instanceof TransactionBuilder) {
+            ((TransactionBuilder) input.getParentTx()).getDependents().add(this);
+        }
+        invalidateReady();
         return this;
     }
 
@@ -331,6 +384,7 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
                     + getType(fv));
         }
         outputs.add(Output.of(outputScript, satoshis));
+        invalidateReady();
         return this;
     }
 
@@ -348,19 +402,60 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
 
     /**
      * Recursively check that this transaction and all the ancestors don't have free
-     * variables.
+     * variables. The result is cached until this builder or one of its ancestors
+     * changes.
      *
      * @return true if this transaction and all the ancestors don't have free
      *         variables, false otherwise.
      */
     @Override
     public boolean isReady() {
-        return env.isReady() && inputs.size() > 0 && outputs.size() > 0 && inputs.stream().filter(Input::hasParentTx)
-            .map(Input::getParentTx).allMatch(ITransactionBuilder::isReady);
+        Boolean result = ready;
+        if (result == null) {
+            result = env.isReady() && inputs.size() > 0 && outputs.size() > 0 && inputs.stream()
+                .filter(Input::hasParentTx).map(Input::getParentTx).allMatch(ITransactionBuilder::isReady);
+            ready = result;
+        }
+        return result;
+    }
+
+    private Set<TransactionBuilder> getDependents() {
+        if (dependents == null) {
+            dependents = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+        }
+        return dependents;
+    }
+
+    /*
+     * Discard the cached readiness of this builder and its descendants. A builder
+     * caches its readiness only after the one of its ancestors, so the visit stops
+     * at the builders whose readiness is not cached.
+     */
+    private void invalidateReady() {
+        Deque<TransactionBuilder> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            TransactionBuilder tb = stack.pop();
+            if (tb.ready != null) {
+                tb.ready = null;
+                if (tb.dependents != null) {
+                    stack.addAll(tb.dependents);
+                }
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Input input : inputs) {
+            if (input.hasParentTx() && input.getParentTx() instanceof TransactionBuilder) {
+                ((TransactionBuilder) input.getParentTx()).getDependents().add(this);
+            }
+        }
     }
 
     @Override
-    public Transaction toTransaction(PrivateKeysStore keystore) {
+    public Transaction toTransaction(MaterializationContext context) {
         checkState(this.isReady(), "the transaction and all its ancestors are not ready");
 
         Transaction tx = new Transaction(params.toNetworkParameters());
@@ -379,8 +474,8 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
                 checkState(txInput.isCoinBase(), "'txInput' is expected to be a coinbase");
             }
             else {
-                ITransactionBuilder parentTransaction2 = input.getParentTx();
-                Transaction parentTransaction = parentTransaction2.toTransaction(keystore);
+                // each ancestor is built once, even if it is shared by multiple inputs
+                Transaction parentTransaction = context.materialize(input.getParentTx());
                 TransactionOutPoint outPoint = new TransactionOutPoint(params.toNetworkParameters(),
                     input.getOutIndex(), parentTransaction);
                 byte[] script = new byte[] {}; // script will be set later
@@ -423,7 +518,8 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
         }
 
         // set all the signatures within the input scripts (which are never part of the
-        // signature)
+        // signature): the signature hashes are shared by all the inputs
+        SighashEngine sighash = new SighashEngine(tx);
         for (int i = 0; i < tx.getInputs().size(); i++) {
             TransactionInput txInput = tx.getInputs().get(i);
             InputScript inputScript = inputs.get(i).getScript();
@@ -457,7 +553,7 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
             }
 
             try {
-                inputScript.setAllSignatures(keystore, tx, i, outScript, isP2PKH);
+                inputScript.setAllSignatures(context.getKeystore(), sighash, i, outScript, isP2PKH, Signer.getDefault());
             } catch (KeyStoreException e) {
                 throw new RuntimeException(e);
             }
@@ -470,6 +566,52 @@ public class TransactionBuilder implements ITransactionBuilder, EnvI<Primitive,
         return tx;
     }
 
+    @Override
+    public Sha256Hash fingerprint(FingerprintContext context) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(params).append('|').append(locktime);
+
+        for (Input input : inputs) {
+            sb.append("|in:");
+            if (input.hasParentTx()) {
+                sb.append(context.fingerprint(input.getParentTx())).append(':').append(input.getOutIndex());
+            }
+            sb.append(':').append(input.getLocktime());
+            appendScript(sb, input.getScript().getType(), input.getScript(), context);
+            if (input.getScript().isP2SH()) {
+                appendScript(sb, input.getScript().getRedeemScript().getType(), input.getScript().getRedeemScript(),
+                    context);
+            }
+        }
+
+        for (Output output : outputs) {
+            sb.append("|out:").append(output.getValue());
+            appendScript(sb, output.getScript().getType(), output.getScript(), context);
+        }
+
+        return Sha256Hash.of(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Append the chunks of the script, including the signature placeholders, and
+     * the values its variables will be bound to
+     */
+    private void appendScript(StringBuilder sb, String type, AbstractScriptBuilderWithVar<?> script,
+        FingerprintContext context) {
+        sb.append(':').append(type).append(':').append(script.serialize());
+        for (String name : new TreeSet<>(script.getVariables())) {
+            Primitive value = script.isBound(name) ? script.getValue(name)
+                : hasVariable(name) && isBound(name) ? getValue(name) : null;
+            sb.append(':').append(name).append('=');
+            if (value instanceof Primitive.Transaction tx) {
+                sb.append(context.fingerprint(tx.value()));
+            }
+            else {
+                sb.append(value);
+            }
+        }
+    }
+
     @Override
     public boolean isCoinbase() {
         return inputs.size() == 1 && !inputs.get(0).hasParentTx();
@@ -30,6 +30,12 @@ public class Env<T> implements EnvI<T, Env<T>> {
     private static final long serialVersionUID = 1L;
     private final Map<String, Class<? extends T>> variablesType = new HashMap<>();
     private final Map<String, T> variablesBinding = new HashMap<>();
+    private int freeCount = 0;
+
+    // snapshots of the variables, discarded on mutation
+    private transient Set<String> variables;
+    private transient Set<String> freeVariables;
+    private transient Set<String> boundVariables;
 
     @Override
     public boolean hasVariable(String name) {
@@ -88,7 +94,10 @@ public class Env<T> implements EnvI<T, Env<T>> {
         checkNotNull(type, "'type' cannot be null");
         checkArgument(!hasVariable(name) || type.equals(getType(name)),
             "'" + name + "' is already associated with class '" + variablesType.get(name) + "'");
-        variablesType.put(name, type);
+        if (variablesType.put(name, type) == null) {
+            freeCount++;
+            invalidate();
+        }
         return this;
     }
 
@@ -97,7 +106,10 @@ public class Env<T> implements EnvI<T, Env<T>> {
         checkNotNull(name, "'name' cannot be null");
         checkArgument(hasVariable(name), "'%s' is not a variable", name);
         variablesType.remove(name);
-        variablesBinding.remove(name);
+        if (variablesBinding.remove(name) == null) {
+            freeCount--;
+        }
+        invalidate();
         return this;
     }
 
@@ -117,33 +129,53 @@ public class Env<T> implements EnvI<T, Env<T>> {
         checkArgument(isFree(name),
             "'" + name + "' is already associated with value '" + variablesBinding.get(name) + "'");
         variablesBinding.put(name, value);
+        freeCount--;
+        invalidate();
         return this;
     }
 
     @Override
     public Set<String> getVariables() {
-        return ImmutableSet.copyOf(variablesType.keySet());
+        if (variables == null) {
+            variables = ImmutableSet.copyOf(variablesType.keySet());
+        }
+        return variables;
     }
 
     @Override
     public Set<String> getFreeVariables() {
-        return Sets.difference(getVariables(), getBoundVariables());
+        if (freeVariables == null) {
+            freeVariables = freeCount == 0 ? ImmutableSet.of()
+                : ImmutableSet.copyOf(Sets.difference(variablesType.keySet(), variablesBinding.keySet()));
+        }
+        return freeVariables;
     }
 
     @Override
     public Set<String> getBoundVariables() {
-        return ImmutableSet.copyOf(variablesBinding.keySet());
+        if (boundVariables == null) {
+            boundVariables = ImmutableSet.copyOf(variablesBinding.keySet());
+        }
+        return boundVariables;
     }
 
     @Override
     public boolean isReady() {
-        return getFreeVariables().size() == 0;
+        return freeCount == 0;
     }
 
     @Override
     public void clear() {
         variablesType.clear();
         variablesBinding.clear();
+        freeCount = 0;
+        invalidate();
+    }
+
+    private void invalidate() {
+        variables = null;
+        freeVariables = null;
+        boundVariables = null;
     }
 
     @Override
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map implemented as a hash array mapped trie.
+ * <p>
+ * {@link #put(Object, Object)} and {@link #remove(Object)} return a new map,
+ * sharing with this one all the nodes that are not on the path to the updated
+ * key, so that both take O(log<sub>32</sub> n) time and space. The hash code is
+ * updated incrementally and is consistent with {@link Map#hashCode()}: values
+ * are expected not to change while they are in the map.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class PersistentMap<K, V> {
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0, 0);
+
+    private static final Object NOT_FOUND = new Object();
+
+    private final Node root;
+    private final int size;
+    private final int hash;
+
+    private PersistentMap(Node root, int size, int hash) {
+        this.root = root;
+        this.size = size;
+        this.hash = hash;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        checkNotNull(key, "'key' cannot be null");
+        return root != null && root.find(key, key.hashCode(), 0) != NOT_FOUND;
+    }
+
+    /**
+     * Return the value associated with the given key.
+     *
+     * @param key the key
+     * @return the value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        checkNotNull(key, "'key' cannot be null");
+        if (root == null) {
+            return null;
+        }
+        Object value = root.find(key, key.hashCode(), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    /**
+     * Return a map associating the given key with the given value.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return a new map, or this one if the key is already associated with the
+     *         same value
+     */
+    public PersistentMap<K, V> put(K key, V value) {
+        checkNotNull(key, "'key' cannot be null");
+        checkNotNull(value, "'value' cannot be null");
+        Change change = new Change();
+        Node base = root == null ? BitmapNode.EMPTY : root;
+        Node newRoot = base.put(key, value, key.hashCode(), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        int newHash = hash + entryHash(key, value);
+        if (change.old != NOT_FOUND) {
+            newHash -= entryHash(key, change.old);
+            return new PersistentMap<>(newRoot, size, newHash);
+        }
+        return new PersistentMap<>(newRoot, size + 1, newHash);
+    }
+
+    /**
+     * Return a map without the given key.
+     *
+     * @param key the key
+     * @return a new map, or this one if the key is not in the map
+     */
+    public PersistentMap<K, V> remove(K key) {
+        checkNotNull(key, "'key' cannot be null");
+        if (root == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = root.remove(key, key.hashCode(), 0, change);
+        if (change.old == NOT_FOUND) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, size - 1, hash - entryHash(key, change.old));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        checkNotNull(action, "'action' cannot be null");
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    /**
+     * Return a copy of this map, with the entries in unspecified order.
+     *
+     * @return a new mutable map
+     */
+    public Map<K, V> toMap() {
+        Map<K, V> map = new LinkedHashMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof PersistentMap<?, ?> other))
+            return false;
+        if (size != other.size || hash != other.hash)
+            return false;
+        if (root == null)
+            return true;
+        boolean[] equal = { true };
+        root.forEach((k, v) -> {
+            if (equal[0]) {
+                equal[0] = other.root.find(k, k.hashCode(), 0).equals(v);
+            }
+        });
+        return equal[0];
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private static int entryHash(Object key, Object value) {
+        return key.hashCode() ^ value.hashCode();
+    }
+
+    /* The index within the bitmap of the given hash at the given level */
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 0x1f);
+    }
+
+    /*
+     * The value replaced or removed by an update, NOT_FOUND if the key was not in
+     * the map
+     */
+    private static final class Change {
+        private Object old = NOT_FOUND;
+    }
+
+    private static abstract class Node {
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+        /* Return null if the node becomes empty */
+        abstract Node remove(Object key, int hash, int shift, Change change);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /*
+     * A node with up to 32 entries or children, indexed by 5 bits of the hash.
+     * The array contains a pair (key, value) for each entry and a pair (null,
+     * child) for each child.
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int idx = index(bit);
+            Object keyOrNull = array[2 * idx];
+            Object valueOrNode = array[2 * idx + 1];
+            if (keyOrNull == null) {
+                return ((Node) valueOrNode).find(key, hash, shift + 5);
+            }
+            return key.equals(keyOrNull) ? valueOrNode : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int bit = bitpos(hash, shift);
+            int idx = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * idx);
+                newArray[2 * idx] = key;
+                newArray[2 * idx + 1] = value;
+                System.arraycopy(array, 2 * idx, newArray, 2 * idx + 2, array.length - 2 * idx);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object keyOrNull = array[2 * idx];
+            Object valueOrNode = array[2 * idx + 1];
+            if (keyOrNull == null) {
+                Node child = (Node) valueOrNode;
+                Node newChild = child.put(key, value, hash, shift + 5, change);
+                return newChild == child ? this : with(2 * idx + 1, newChild);
+            }
+            if (key.equals(keyOrNull)) {
+                if (value == valueOrNode) {
+                    return this;
+                }
+                change.old = valueOrNode;
+                return with(2 * idx + 1, value);
+            }
+            Node child = createNode(shift + 5, keyOrNull, valueOrNode, key, value, hash);
+            Object[] newArray = array.clone();
+            newArray[2 * idx] = null;
+            newArray[2 * idx + 1] = child;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object keyOrNull = array[2 * idx];
+            Object valueOrNode = array[2 * idx + 1];
+            if (keyOrNull == null) {
+                Node child = (Node) valueOrNode;
+                Node newChild = child.remove(key, hash, shift + 5, change);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return with(2 * idx + 1, newChild);
+                }
+            }
+            else if (key.equals(keyOrNull)) {
+                change.old = valueOrNode;
+            }
+            else {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * idx);
+            System.arraycopy(array, 2 * idx + 2, newArray, 2 * idx, newArray.length - 2 * idx);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                }
+                else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        private BitmapNode with(int i, Object obj) {
+            Object[] newArray = array.clone();
+            newArray[i] = obj;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        /*
+         * A node containing two distinct keys. Distinct hashes differ within the
+         * first 32 bits, so the recursion ends before the shift exceeds 30.
+         */
+        private static Node createNode(int shift, Object key1, Object value1, Object key2, Object value2,
+            int hash2) {
+            int hash1 = key1.hashCode();
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+            Change ignored = new Change();
+            return EMPTY.put(key1, value1, hash1, shift, ignored).put(key2, value2, hash2, shift, ignored);
+        }
+    }
+
+    /*
+     * A leaf containing the entries whose keys have the same hash
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int index(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int i = hash == this.hash ? index(key) : -1;
+            return i == -1 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            if (hash != this.hash) {
+                // nest this node within a bitmap node, at the current level
+                return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this }).put(key, value, hash,
+                    shift, change);
+            }
+            int i = index(key);
+            if (i == -1) {
+                Object[] newArray = Arrays.copyOf(array, array.length + 2);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            if (array[i + 1] == value) {
+                return this;
+            }
+            change.old = array[i + 1];
+            Object[] newArray = array.clone();
+            newArray[i + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            int i = hash == this.hash ? index(key) : -1;
+            if (i == -1) {
+                return this;
+            }
+            change.old = array[i + 1];
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+}
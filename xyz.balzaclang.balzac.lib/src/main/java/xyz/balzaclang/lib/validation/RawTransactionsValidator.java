@@ -0,0 +1,214 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.balzaclang.lib.validation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import xyz.balzaclang.lib.model.NetworkType;
+
+/**
+ * Validate a stream of raw transactions, one hex-encoded transaction per line.
+ * <p>
+ * The hex digits are decoded while reading, into a buffer reused for all the
+ * lines. Transactions are validated concurrently on the given executor, and
+ * the results are emitted in the same order of the lines. At most
+ * {@code maxPending} transactions are kept in memory while waiting for their
+ * validation. Blank lines are skipped.
+ * </p>
+ *
+ * @see Validator#validateRawTransaction(byte[], NetworkType)
+ */
+public class RawTransactionsValidator {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final NetworkType params;
+    private final Executor executor;
+    private final int maxPending;
+
+    /**
+     * Create a validator that uses the {@link ForkJoinPool#commonPool() common
+     * pool}.
+     *
+     * @param params the network of the transactions
+     */
+    public RawTransactionsValidator(NetworkType params) {
+        this(params, ForkJoinPool.commonPool(), 4 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public RawTransactionsValidator(NetworkType params, Executor executor, int maxPending) {
+        checkNotNull(params, "'params' cannot be null");
+        checkNotNull(executor, "'executor' cannot be null");
+        checkArgument(maxPending > 0, "'maxPending' must be positive");
+        this.params = params;
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    public void validate(InputStream in, Consumer<ValidationResult> consumer) throws IOException {
+        checkNotNull(in, "'in' cannot be null");
+        validate(Channels.newChannel(in), consumer);
+    }
+
+    public List<ValidationResult> validate(InputStream in) throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        validate(in, results::add);
+        return results;
+    }
+
+    /**
+     * Validate the transactions read from the given channel, passing the results
+     * to the consumer in the same order of the lines. The consumer is invoked by
+     * the calling thread.
+     *
+     * @param channel  the channel to read
+     * @param consumer the consumer of the results
+     * @throws IOException if an error occurs reading from the channel
+     */
+    public void validate(ReadableByteChannel channel, Consumer<ValidationResult> consumer) throws IOException {
+        checkNotNull(channel, "'channel' cannot be null");
+        checkNotNull(consumer, "'consumer' cannot be null");
+
+        Deque<CompletableFuture<ValidationResult>> pending = new ArrayDeque<>();
+        ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        LineDecoder line = new LineDecoder();
+
+        try {
+            while (channel.read(readBuffer) != -1) {
+                readBuffer.flip();
+                while (readBuffer.hasRemaining()) {
+                    byte c = readBuffer.get();
+                    if (c == '\n') {
+                        submit(line, pending, consumer);
+                    }
+                    else {
+                        line.append(c);
+                    }
+                }
+                readBuffer.clear();
+            }
+            submit(line, pending, consumer);
+
+            while (!pending.isEmpty()) {
+                consumer.accept(pending.poll().join());
+            }
+        } finally {
+            pending.forEach(f -> f.cancel(false));
+        }
+    }
+
+    /*
+     * Validate the current line, waiting for the oldest result if too many
+     * transactions are pending
+     */
+    private void submit(
+        LineDecoder line,
+        Deque<CompletableFuture<ValidationResult>> pending,
+        Consumer<ValidationResult> consumer) {
+        if (line.isBlank()) {
+            line.reset();
+            return;
+        }
+        if (pending.size() >= maxPending) {
+            consumer.accept(pending.poll().join());
+        }
+        String error = line.getError();
+        if (error != null) {
+            pending.add(CompletableFuture.completedFuture(ValidationResult.error(error)));
+        }
+        else {
+            byte[] bytes = line.toByteArray();
+            pending.add(CompletableFuture.supplyAsync(() -> Validator.validateRawTransaction(bytes, params), executor));
+        }
+        line.reset();
+    }
+
+    /*
+     * Decode the hex digits of a line into a growing buffer
+     */
+    private static class LineDecoder {
+
+        private byte[] bytes = new byte[1024];
+        private int size = 0;
+        private int digits = 0;
+        private boolean blank = true;
+        private String error;
+
+        private void append(byte c) {
+            if (c == '\r' || c == ' ' || c == '\t') {
+                return;
+            }
+            blank = false;
+            if (error != null) {
+                return;
+            }
+            int nibble = Character.digit(c, 16);
+            if (nibble == -1) {
+                error = "Invalid hex character '" + (char) c + "' at position " + digits;
+                return;
+            }
+            if (digits % 2 == 0) {
+                if (size == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, 2 * size);
+                }
+                bytes[size++] = (byte) (nibble << 4);
+            }
+            else {
+                bytes[size - 1] |= nibble;
+            }
+            digits++;
+        }
+
+        private boolean isBlank() {
+            return blank;
+        }
+
+        private String getError() {
+            if (error == null && digits % 2 != 0) {
+                return "Odd number of hex digits";
+            }
+            return error;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void reset() {
+            size = 0;
+            digits = 0;
+            blank = true;
+            error = null;
+        }
+    }
+}
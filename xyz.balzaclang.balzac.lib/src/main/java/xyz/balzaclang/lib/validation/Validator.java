@@ -16,6 +16,12 @@
 
 package xyz.balzaclang.lib.validation;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.bitcoinj.core.Address;
 import org.bitcoinj.core.AddressFormatException;
 import org.bitcoinj.core.AddressFormatException.InvalidCharacter;
@@ -32,6 +38,7 @@ import xyz.balzaclang.lib.PrivateKeysStore;
 import xyz.balzaclang.lib.model.NetworkType;
 import xyz.balzaclang.lib.model.script.OutputScript;
 import xyz.balzaclang.lib.model.transaction.ITransactionBuilder;
+import xyz.balzaclang.lib.model.transaction.MaterializationContext;
 import xyz.balzaclang.lib.utils.BitcoinUtils;
 import xyz.balzaclang.lib.validation.ValidationResult.InputValidationError;
 
@@ -53,6 +60,31 @@ public class Validator {
     public static ValidationResult checkWitnessesCorrecltySpendsOutputs(
         ITransactionBuilder txBuilder,
         PrivateKeysStore keyStore) {
+        return checkWitnessesCorrecltySpendsOutputs(txBuilder, new MaterializationContext(keyStore));
+    }
+
+    public static ValidationResult checkWitnessesCorrecltySpendsOutputs(
+        ITransactionBuilder txBuilder,
+        MaterializationContext context) {
+        return checkWitnessesCorrecltySpendsOutputs(txBuilder, context, null);
+    }
+
+    /**
+     * Check that each input of the transaction correctly spends the output it
+     * redeems. If an executor is given, the inputs are verified concurrently and
+     * the inputs following a failed one are skipped. In both cases, if more inputs
+     * fail, the resulting {@link InputValidationError} refers to the first one.
+     *
+     * @param txBuilder the transaction to check
+     * @param context   the context used to materialize the transaction
+     * @param executor  the executor verifying the inputs, or null to verify them
+     *                  sequentially
+     * @return the result of the validation
+     */
+    public static ValidationResult checkWitnessesCorrecltySpendsOutputs(
+        ITransactionBuilder txBuilder,
+        MaterializationContext context,
+        Executor executor) {
         // preconditions
         if (txBuilder.isCoinbase()) {
             return ValidationResult.ok("Transaction is a coinbase");
@@ -62,18 +94,9 @@ public class Validator {
         }
 
         try {
-            Transaction tx = txBuilder.toTransaction(keyStore);
-            for (int i = 0; i < tx.getInputs().size(); i++) {
-                Script inputScript = tx.getInput(i).getScriptSig();
-                Script outputScript = tx.getInput(i).getOutpoint().getConnectedOutput().getScriptPubKey();
-
-                try {
-                    inputScript.correctlySpends(tx, i, outputScript, Script.ALL_VERIFY_FLAGS);
-                } catch (ScriptException e) {
-                    return new InputValidationError(i, e.getMessage(), inputScript, outputScript);
-                }
-            }
-            return ValidationResult.ok("All inputs correctly spend their outputs");
+            Transaction tx = context.materialize(txBuilder);
+            ValidationResult error = executor == null ? checkInputs(tx) : checkInputs(tx, executor);
+            return error != null ? error : ValidationResult.ok("All inputs correctly spend their outputs");
         } catch (Exception e) {
             String message = "Generic error.";
             message += e.getMessage() != null ? " Details: " + e.getMessage() : "";
@@ -81,6 +104,62 @@ public class Validator {
         }
     }
 
+    private static InputValidationError checkInputs(Transaction tx) {
+        for (int i = 0; i < tx.getInputs().size(); i++) {
+            InputValidationError error = checkInput(tx, i);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    private static InputValidationError checkInputs(Transaction tx, Executor executor) throws Exception {
+        int size = tx.getInputs().size();
+        AtomicInteger firstFailure = new AtomicInteger(size);
+        AtomicReferenceArray<InputValidationError> errors = new AtomicReferenceArray<>(size);
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[size];
+
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                // an input preceding this one already failed
+                if (index > firstFailure.get()) {
+                    return;
+                }
+                InputValidationError error = checkInput(tx, index);
+                if (error != null) {
+                    errors.set(index, error);
+                    firstFailure.accumulateAndGet(index, Math::min);
+                }
+            }, executor);
+        }
+
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+
+        int index = firstFailure.get();
+        return index < size ? errors.get(index) : null;
+    }
+
+    /*
+     * Return an error if the i-th input does not spend its output, null otherwise
+     */
+    private static InputValidationError checkInput(Transaction tx, int i) {
+        Script inputScript = tx.getInput(i).getScriptSig();
+        Script outputScript = tx.getInput(i).getOutpoint().getConnectedOutput().getScriptPubKey();
+
+        try {
+            inputScript.correctlySpends(tx, i, outputScript, Script.ALL_VERIFY_FLAGS);
+            return null;
+        } catch (ScriptException e) {
+            return new InputValidationError(i, e.getMessage(), inputScript, outputScript);
+        }
+    }
+
     public static ValidationResult validateRawTransaction(String bytes, NetworkType params) {
         return transactionExceptionHandler(() -> {
             Transaction tx = new Transaction(params.toNetworkParameters(), BitcoinUtils.decode(bytes));
@@ -88,6 +167,13 @@ public class Validator {
         });
     }
 
+    public static ValidationResult validateRawTransaction(byte[] bytes, NetworkType params) {
+        return transactionExceptionHandler(() -> {
+            Transaction tx = new Transaction(params.toNetworkParameters(), bytes);
+            tx.verify();
+        });
+    }
+
     public static ValidationResult validatePrivateKey(String wif, NetworkType params) {
         return base58ExceptionHandler(() -> {
             DumpedPrivateKey.fromBase58(params.toNetworkParameters(), wif);
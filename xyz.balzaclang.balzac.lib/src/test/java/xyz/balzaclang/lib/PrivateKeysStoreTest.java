@@ -17,6 +17,8 @@ package xyz.balzaclang.lib;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.security.KeyStoreException;
@@ -46,4 +48,27 @@ public class PrivateKeysStoreTest {
         assertArrayEquals(k1.getBytes(), k2.getBytes());
         assertEquals(k1.getNetworkType(), k2.getNetworkType());
     }
+
+    @Test
+    public void cachedKeys() throws KeyStoreException {
+        PrivateKeysStore ks = new PrivateKeysStore();
+        PrivateKey k1 = PrivateKey.fresh(NetworkType.TESTNET);
+        String alias1 = ks.addKey(k1);
+
+        PrivateKey k2 = ks.getKey(alias1);
+        PrivateKey k3 = ks.getKey(alias1);
+
+        assertSame(k2, k3);
+        assertArrayEquals(k1.getBytes(), ks.getECKey(alias1).getPrivKeyBytes());
+        assertEquals(1, ks.getCacheMissCount());
+        assertEquals(2, ks.getCacheHitCount());
+
+        // the cache is invalidated when changing the password
+        ks.changePassword("test".toCharArray());
+        PrivateKey k4 = ks.getKey(alias1);
+
+        assertNotSame(k2, k4);
+        assertArrayEquals(k1.getBytes(), k4.getBytes());
+        assertEquals(2, ks.getCacheMissCount());
+    }
 }
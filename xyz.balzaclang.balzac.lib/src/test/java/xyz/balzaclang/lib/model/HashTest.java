@@ -20,7 +20,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 import org.bitcoinj.script.Script;
 import org.bitcoinj.script.ScriptBuilder;
@@ -114,6 +117,57 @@ public class HashTest {
         }
     }
 
+    @Test
+    public void test_hashInto() {
+        Object[] values = new Object[] { 42L, "Hello world!", false, new byte[42], new Hash(new byte[20]) };
+        byte[] out = new byte[40];
+
+        for (HashAlgorithm alg : HashAlgorithm.values()) {
+            for (Object v : values) {
+                assertEquals(alg.getLength(), Hash.hashInto(v, alg, out, 3));
+                byte[] expected = Hash.hash(v, alg).getBytes();
+                assertEquals(alg.getLength(), expected.length);
+                assertArrayEquals(expected, Arrays.copyOfRange(out, 3, 3 + alg.getLength()));
+            }
+        }
+    }
+
+    @Test
+    public void test_hashAll() {
+        Object[] values = new Object[] { 42L, "Hello world!", true, new byte[42], new Hash(new byte[20]) };
+
+        for (Object v : values) {
+            Map<HashAlgorithm, Hash> hashes = Hash.hashAll(v);
+            assertEquals(HashAlgorithm.values().length, hashes.size());
+            for (HashAlgorithm alg : HashAlgorithm.values()) {
+                assertEquals(Hash.hash(v, alg), hashes.get(alg));
+            }
+        }
+    }
+
+    @Test
+    public void test_hashBatch() {
+        List<Object> values = Arrays.asList(42L, "Hello world!", true, new byte[42], new Hash(new byte[20]));
+
+        for (HashAlgorithm alg : HashAlgorithm.values()) {
+            List<Hash> hashes = Hash.hashBatch(values, alg);
+            assertEquals(values.size(), hashes.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(Hash.hash(values.get(i), alg), hashes.get(i));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_hashInto_tooShort() {
+        Hash.hashInto("Hello world!", HashAlgorithm.SHA256, new byte[32], 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_hash_invalidInput() {
+        Hash.hash(new Object(), HashAlgorithm.SHA256);
+    }
+
     @Test
     public void test_hashes_empty() {
         assertArrayEquals(executeScript(new byte[] {}, HashAlgorithm.SHA1), Hash.sha1(new byte[] {}).getBytes());
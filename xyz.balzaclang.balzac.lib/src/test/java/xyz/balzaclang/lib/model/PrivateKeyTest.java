@@ -42,4 +42,21 @@ public class PrivateKeyTest {
         assertEquals("mnmhLRXDxpNzA6Wr99wZNRQcQWzQk2uRs5", k1.toAddress().getWif());
         assertEquals("mkRANnsZDHb6cp1uUGvdNQQaDCToDKRW9Q", k2.toAddress().getWif());
     }
+
+    @Test
+    public void testFromBase58Interned() {
+        String wif = "cMahea7zqjxrtgAbB7LSGbcQUr1uX1ojuat9jZodN7H9U97a6MPk";
+
+        PrivateKey k1 = PrivateKey.fromBase58(wif);
+        PrivateKey k2 = PrivateKey.fromBase58(wif);
+
+        assertSame(k1, k2);
+        assertEquals(wif, k1.getWif());
+        assertEquals("mnmhLRXDxpNzA6Wr99wZNRQcQWzQk2uRs5", k1.toAddress().getWif());
+
+        PrivateKey k3 = k1.withNetwork(NetworkType.MAINNET);
+        assertSame(k1.toPublicKey(), k3.toPublicKey());
+        assertFalse(k1.toAddress().getWif().equals(k3.toAddress().getWif()));
+        assertEquals(k1.getWif(), k3.withNetwork(NetworkType.TESTNET).getWif());
+    }
 }
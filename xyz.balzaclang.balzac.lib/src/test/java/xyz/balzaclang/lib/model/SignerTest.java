@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction.SigHash;
+import org.bitcoinj.crypto.TransactionSignature;
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+
+public class SignerTest {
+
+    private static final Sha256Hash HASH = Sha256Hash.of(new byte[] { 1, 2, 3 });
+
+    @Test
+    public void test_cache() {
+        PrivateKey key = PrivateKey.fresh(NetworkType.TESTNET);
+        ECKey eckey = ECKey.fromPrivate(key.getBytes());
+        String keyID = PrivateKeysStore.getUniqueID(key);
+        Signer signer = new Signer(Signer.Policy.VERIFY_ALWAYS);
+
+        TransactionSignature sigA = signer.sign(HASH, keyID, eckey, SigHash.ALL, false);
+        TransactionSignature sigB = signer.sign(HASH, keyID, eckey, SigHash.ALL, false);
+        TransactionSignature sigC = signer.sign(HASH, keyID, eckey, SigHash.NONE, false);
+
+        assertSame(sigA, sigB);
+        assertTrue(eckey.verify(HASH, sigA));
+        assertTrue(eckey.verify(HASH, sigC));
+        assertEquals(SigHash.NONE.value, sigC.sighashFlags);
+        assertEquals(2, signer.getComputedCount());
+        assertEquals(1, signer.getCachedCount());
+        assertEquals(2, signer.getVerifiedCount());
+    }
+
+    @Test
+    public void test_deterministic() {
+        PrivateKey key = PrivateKey.fresh(NetworkType.TESTNET);
+        ECKey eckey = ECKey.fromPrivate(key.getBytes());
+        String keyID = PrivateKeysStore.getUniqueID(key);
+
+        // the cache is disabled: signatures are computed again, with the same result
+        Signer signer = new Signer(Signer.Policy.TRUST, 1, 0);
+        TransactionSignature sigA = signer.sign(HASH, keyID, eckey, SigHash.ALL, true);
+        TransactionSignature sigB = signer.sign(HASH, keyID, eckey, SigHash.ALL, true);
+
+        assertArrayEquals(sigA.encodeToBitcoin(), sigB.encodeToBitcoin());
+        assertEquals(2, signer.getComputedCount());
+        assertEquals(0, signer.getCachedCount());
+        assertEquals(0, signer.getVerifiedCount());
+    }
+
+    @Test
+    public void test_sampled() {
+        PrivateKey key = PrivateKey.fresh(NetworkType.TESTNET);
+        ECKey eckey = ECKey.fromPrivate(key.getBytes());
+        String keyID = PrivateKeysStore.getUniqueID(key);
+        Signer signer = new Signer(Signer.Policy.VERIFY_SAMPLED, 4, 0);
+
+        for (int i = 0; i < 8; i++) {
+            signer.sign(Sha256Hash.of(new byte[] { (byte) i }), keyID, eckey, SigHash.ALL, false);
+        }
+        assertEquals(8, signer.getComputedCount());
+        assertEquals(2, signer.getVerifiedCount());
+    }
+}
@@ -106,6 +106,25 @@ public class ScriptBuilderWithVarTest {
         assertEquals(0, sb.signatureSize());
     }
 
+    @Test
+    public void test_placeholderClassification() {
+        ScriptBuilderWithVar sb = new ScriptBuilderWithVar();
+        // plain data resembling a (truncated) placeholder
+        sb.data("[$var".getBytes());
+        sb.addVariable("a", Primitive.Number.class);
+        sb.addVariable("ab", Primitive.Number.class);
+        assertEquals(3, sb.size());
+        assertEquals("PUSHDATA[5b24766172] [var,a,xyz.balzaclang.lib.model.script.primitives.Primitive$Number]  "
+            + "[var,ab,xyz.balzaclang.lib.model.script.primitives.Primitive$Number]", sb.serialize());
+
+        sb.removeVariable("a");
+        assertEquals(2, sb.size());
+        assertTrue(sb.hasVariable("ab"));
+
+        sb.bindVariable("ab", Primitive.of(7L));
+        assertEquals("PUSHDATA(5)[5b24766172] 7", sb.build().toString());
+    }
+
     @Test
     public void test_signature() throws KeyStoreException {
         ScriptBuilderWithVar sb = new ScriptBuilderWithVar();
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.script;
+
+import static org.bitcoinj.script.ScriptOpCodes.OP_4;
+import static org.bitcoinj.script.ScriptOpCodes.OP_DROP;
+import static org.bitcoinj.script.ScriptOpCodes.OP_DUP;
+import static org.bitcoinj.script.ScriptOpCodes.OP_EQUAL;
+import static org.bitcoinj.script.ScriptOpCodes.OP_EQUALVERIFY;
+import static org.bitcoinj.script.ScriptOpCodes.OP_FROMALTSTACK;
+import static org.bitcoinj.script.ScriptOpCodes.OP_NOT;
+import static org.bitcoinj.script.ScriptOpCodes.OP_TOALTSTACK;
+import static org.bitcoinj.script.ScriptOpCodes.OP_VERIFY;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+import org.junit.Test;
+
+import xyz.balzaclang.lib.model.script.AbstractScriptBuilderWithVar.ScriptBuilderWithVar;
+import xyz.balzaclang.lib.model.script.primitives.Primitive;
+
+public class ScriptOptimizerTest {
+
+    @Test
+    public void test_dupDrop() {
+        Script s = new ScriptBuilder().number(4).op(OP_DUP).op(OP_DROP).build();
+
+        // not a default rule
+        assertEquals(s, AbstractScriptBuilder.optimize(s));
+
+        ScriptOptimizer optimizer = ScriptOptimizer.DEFAULT.with(ScriptOptimizer.DUP_DROP);
+        Script opt = new ScriptBuilderWithVar(s).optimize(optimizer).build();
+        assertArrayEquals(new byte[] { OP_4 }, opt.getProgram());
+    }
+
+    @Test
+    public void test_dupDropOnEmptyStack() {
+        // DUP fails on an empty stack, removing it would make the script succeed
+        Script s = new ScriptBuilder().op(OP_DUP).op(OP_DROP).opTrue().build();
+        assertArrayEquals(s.getProgram(), AbstractScriptBuilder.optimize(s).getProgram());
+    }
+
+    @Test
+    public void test_equalVerify() {
+        Script s = new ScriptBuilder().number(4).number(4).op(OP_EQUAL).op(OP_VERIFY).build();
+        assertArrayEquals(new byte[] { OP_4, OP_4, (byte) OP_EQUALVERIFY },
+            AbstractScriptBuilder.optimize(s).getProgram());
+    }
+
+    @Test
+    public void test_notNotVerify() {
+        Script s = new ScriptBuilder().number(4).op(OP_NOT).op(OP_NOT).op(OP_VERIFY).build();
+
+        // not a default rule
+        assertEquals(s, AbstractScriptBuilder.optimize(s));
+
+        ScriptOptimizer optimizer = ScriptOptimizer.DEFAULT.with(ScriptOptimizer.NOT_NOT_VERIFY);
+        Script opt = new ScriptBuilderWithVar(s).optimize(optimizer).build();
+        assertArrayEquals(new byte[] { OP_4, OP_VERIFY }, opt.getProgram());
+    }
+
+    @Test
+    public void test_cascade() {
+        // the replacement of a rule enables another one
+        ScriptOptimizer optimizer = ScriptOptimizer.DEFAULT.with(ScriptOptimizer.DUP_DROP,
+            ScriptOptimizer.NOT_NOT_VERIFY);
+        Script s = new ScriptBuilderWithVar().number(4).number(4).op(OP_EQUAL).op(OP_DUP).op(OP_TOALTSTACK)
+            .op(OP_FROMALTSTACK).op(OP_DROP).op(OP_NOT).op(OP_NOT).op(OP_VERIFY).optimize(optimizer).build();
+        assertArrayEquals(new byte[] { OP_4, OP_4, (byte) OP_EQUALVERIFY }, s.getProgram());
+    }
+
+    @Test
+    public void test_placeholders() {
+        // placeholders are not opcodes and break the patterns
+        ScriptBuilderWithVar sb = new ScriptBuilderWithVar().op(OP_DUP);
+        sb.addVariable("x", Primitive.Number.class);
+        sb.op(OP_DROP).optimize();
+        assertEquals(3, sb.size());
+    }
+
+    @Test
+    public void test_longScript() {
+        int n = 100_000;
+        ScriptBuilderWithVar sb = new ScriptBuilderWithVar();
+        for (int i = 0; i < n; i++) {
+            sb.op(OP_TOALTSTACK);
+        }
+        sb.number(4);
+        for (int i = 0; i < n; i++) {
+            sb.op(OP_FROMALTSTACK);
+        }
+        for (int i = 0; i < n; i++) {
+            sb.op(OP_TOALTSTACK).op(OP_FROMALTSTACK);
+        }
+        sb.optimize();
+        assertEquals(2 * n + 1, sb.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_invalidRule() {
+        ScriptOptimizer.Rule.replace(new int[] { OP_DUP }, OP_DUP);
+    }
+}
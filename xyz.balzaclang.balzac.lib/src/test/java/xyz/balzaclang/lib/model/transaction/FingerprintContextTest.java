@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.coinbase;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.spend;
+
+import java.security.KeyStoreException;
+
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.model.PrivateKey;
+
+public class FingerprintContextTest {
+
+    private static final PrivateKey KEY_A = PrivateKey.fresh(NetworkType.TESTNET);
+    private static final PrivateKey KEY_B = PrivateKey.fresh(NetworkType.TESTNET);
+
+    @Test
+    public void test_fingerprint() throws KeyStoreException {
+        TransactionBuilder tx = spend(coinbase(2), 0, KEY_A, 5_000);
+        TransactionBuilder same = spend(coinbase(2), 0, KEY_A, 5_000);
+
+        // no keystore is needed
+        assertEquals(tx.fingerprint(), same.fingerprint());
+        assertNotEquals(tx.fingerprint(), spend(coinbase(2), 1, KEY_A, 5_000).fingerprint());
+        assertNotEquals(tx.fingerprint(), spend(coinbase(2), 0, KEY_B, 5_000).fingerprint());
+        assertNotEquals(tx.fingerprint(), spend(coinbase(2), 0, KEY_A, 6_000).fingerprint());
+
+        // same transactions once signed
+        PrivateKeysStore keystore = new PrivateKeysStore();
+        keystore.addKey(KEY_A);
+        assertEquals(tx.toTransaction(keystore), same.toTransaction(keystore));
+    }
+
+    @Test
+    public void test_ancestorsOnce() {
+        CoinbaseTransactionBuilder coinbase = coinbase(2);
+        TransactionBuilder b = spend(coinbase, 0, KEY_A, 5_000);
+        TransactionBuilder c = spend(coinbase, 1, KEY_A, 5_000);
+
+        FingerprintContext context = new FingerprintContext();
+        context.fingerprint(b);
+        context.fingerprint(c);
+
+        assertEquals(3, context.size());
+        assertEquals(coinbase.fingerprint(), context.fingerprint(coinbase));
+    }
+
+    @Test
+    public void test_serial() throws KeyStoreException {
+        PrivateKeysStore keystore = new PrivateKeysStore();
+        ITransactionBuilder serial = ITransactionBuilder.fromSerializedTransaction(coinbase(2).toTransaction(keystore));
+        assertEquals(serial.toTransaction(keystore).getTxId(), serial.fingerprint());
+    }
+}
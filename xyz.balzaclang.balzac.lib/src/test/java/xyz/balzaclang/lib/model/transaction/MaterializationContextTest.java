@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.alwaysTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.coinbase;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.redeemAlwaysTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.spend;
+
+import java.security.KeyStoreException;
+
+import org.bitcoinj.core.Transaction;
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+
+public class MaterializationContextTest {
+
+    private static class CountingCoinbaseTransactionBuilder extends CoinbaseTransactionBuilder {
+
+        private static final long serialVersionUID = 1L;
+        private int count = 0;
+
+        public CountingCoinbaseTransactionBuilder(NetworkType params) {
+            super(params);
+        }
+
+        @Override
+        public Transaction toTransaction(MaterializationContext context) {
+            count++;
+            return super.toTransaction(context);
+        }
+    }
+
+    @Test
+    public void test_diamond() throws KeyStoreException {
+        CountingCoinbaseTransactionBuilder d = coinbase(new CountingCoinbaseTransactionBuilder(NetworkType.TESTNET), 2);
+        TransactionBuilder b = spend(d, 0, 5_000);
+        TransactionBuilder c = spend(d, 1, 5_000);
+
+        TransactionBuilder a = new TransactionBuilder(NetworkType.TESTNET);
+        a.addInput(b, 0, redeemAlwaysTrue());
+        a.addInput(c, 0, redeemAlwaysTrue());
+        a.addOutput(alwaysTrue(), 8_000);
+
+        MaterializationContext context = new MaterializationContext(new PrivateKeysStore());
+        Transaction tx = context.materialize(a);
+
+        assertEquals(1, d.count);
+        assertEquals(4, context.size());
+        assertTrue(context.isMaterialized(d));
+        assertSame(tx, context.materialize(a));
+        assertEquals(1, d.count);
+
+        // the default conversion uses a fresh context
+        assertEquals(tx, a.toTransaction(new PrivateKeysStore()));
+        assertEquals(2, d.count);
+    }
+}
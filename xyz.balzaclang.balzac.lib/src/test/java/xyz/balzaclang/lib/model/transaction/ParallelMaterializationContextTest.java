@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.alwaysTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.coinbase;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.redeemAlwaysTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.spend;
+
+import java.security.KeyStoreException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bitcoinj.core.Transaction;
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+
+public class ParallelMaterializationContextTest {
+
+    private static class CountingCoinbaseTransactionBuilder extends CoinbaseTransactionBuilder {
+
+        private static final long serialVersionUID = 1L;
+        private final AtomicInteger count = new AtomicInteger();
+
+        public CountingCoinbaseTransactionBuilder(NetworkType params) {
+            super(params);
+        }
+
+        @Override
+        public Transaction toTransaction(MaterializationContext context) {
+            count.incrementAndGet();
+            return super.toTransaction(context);
+        }
+    }
+
+    @Test
+    public void test_fanIn() throws KeyStoreException {
+        int width = 12;
+
+        CountingCoinbaseTransactionBuilder root = coinbase(new CountingCoinbaseTransactionBuilder(NetworkType.TESTNET),
+            width);
+
+        TransactionBuilder child = new TransactionBuilder(NetworkType.TESTNET);
+        for (int i = 0; i < width; i++) {
+            child.addInput(spend(root, i, 5_000), 0, redeemAlwaysTrue());
+        }
+        child.addOutput(alwaysTrue(), width * 1_000);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MaterializationContext context = new ParallelMaterializationContext(new PrivateKeysStore(), pool);
+            Transaction tx = context.materialize(child);
+
+            assertEquals(1, root.count.get());
+            assertEquals(width + 2, context.size());
+            assertTrue(context.isMaterialized(root));
+            assertEquals(width, tx.getInputs().size());
+
+            // same result of the sequential materialization
+            assertEquals(tx, new MaterializationContext(new PrivateKeysStore()).materialize(child));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
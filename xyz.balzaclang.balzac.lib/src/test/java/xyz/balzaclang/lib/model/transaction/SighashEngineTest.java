@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import static org.bitcoinj.script.ScriptOpCodes.OP_CHECKSIG;
+import static org.bitcoinj.script.ScriptOpCodes.OP_CODESEPARATOR;
+import static org.bitcoinj.script.ScriptOpCodes.OP_DUP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.Transaction.SigHash;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutPoint;
+import org.bitcoinj.script.ScriptBuilder;
+import org.junit.Test;
+
+import xyz.balzaclang.lib.model.NetworkType;
+
+public class SighashEngineTest {
+
+    private static final NetworkParameters PARAMS = NetworkType.TESTNET.toNetworkParameters();
+
+    private static Transaction transaction(int inputs, int outputs) {
+        Transaction tx = new Transaction(PARAMS);
+        tx.setVersion(2);
+        for (int i = 0; i < inputs; i++) {
+            TransactionOutPoint outpoint = new TransactionOutPoint(PARAMS, i,
+                Sha256Hash.of(new byte[] { (byte) i }));
+            TransactionInput input = new TransactionInput(PARAMS, tx, new byte[] { 1, 2, 3 }, outpoint);
+            input.setSequenceNumber(TransactionInput.NO_SEQUENCE - i);
+            tx.addInput(input);
+        }
+        for (int i = 0; i < outputs; i++) {
+            tx.addOutput(Coin.valueOf(1000 + i), new ScriptBuilder().number(i).build());
+        }
+        tx.setLockTime(500);
+        return tx;
+    }
+
+    @Test
+    public void test_sameAsBitcoinj() {
+        byte[] script = new ScriptBuilder().op(OP_DUP).op(OP_CODESEPARATOR).op(OP_CHECKSIG).build().getProgram();
+        Transaction tx = transaction(3, 2);
+        SighashEngine engine = new SighashEngine(tx);
+
+        for (int i = 0; i < 3; i++) {
+            for (SigHash type : new SigHash[] { SigHash.ALL, SigHash.NONE, SigHash.SINGLE }) {
+                for (boolean anyoneCanPay : new boolean[] { false, true }) {
+                    assertEquals(i + " " + type + " " + anyoneCanPay,
+                        tx.hashForSignature(i, script, type, anyoneCanPay),
+                        engine.hashForSignature(i, script, type, anyoneCanPay));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_memoized() {
+        byte[] script = new ScriptBuilder().op(OP_CHECKSIG).build().getProgram();
+        Transaction tx = transaction(2, 1);
+        SighashEngine engine = new SighashEngine(tx);
+
+        Sha256Hash hash = engine.hashForSignature(1, script, SigHash.ALL, false);
+        assertSame(hash, engine.hashForSignature(1, script.clone(), SigHash.ALL, false));
+        assertEquals(1, engine.size());
+
+        // input scripts are not part of the signature
+        tx.getInput(0).setScriptSig(new ScriptBuilder().number(7).build());
+        assertEquals(tx.hashForSignature(1, script, SigHash.ALL, false), hash);
+
+        engine.hashForSignature(0, script, SigHash.ALL, false);
+        engine.hashForSignature(1, script, SigHash.ALL, true);
+        assertEquals(3, engine.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void test_invalidIndex() {
+        new SighashEngine(transaction(1, 1)).hashForSignature(1, new byte[] {}, SigHash.ALL, false);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.alwaysTrue;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.coinbase;
+import static xyz.balzaclang.lib.model.transaction.TransactionFixtures.redeemAlwaysTrue;
+
+import java.security.KeyStoreException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.model.PrivateKey;
+import xyz.balzaclang.lib.model.Signature;
+import xyz.balzaclang.lib.model.SignatureModifier;
+import xyz.balzaclang.lib.model.Signer;
+
+public class SigningSessionTest {
+
+    @Test
+    public void test_sign() throws KeyStoreException {
+        CoinbaseTransactionBuilder coinbase = coinbase(2);
+        TransactionBuilder tx = new TransactionBuilder(NetworkType.TESTNET);
+        tx.addInput(coinbase, 0, redeemAlwaysTrue());
+        tx.addInput(coinbase, 1, redeemAlwaysTrue());
+        tx.addOutput(alwaysTrue(), 15_000);
+
+        PrivateKeysStore keystore = new PrivateKeysStore();
+        PrivateKey keyA = PrivateKey.fresh(NetworkType.TESTNET);
+        PrivateKey keyB = PrivateKey.fresh(NetworkType.TESTNET);
+
+        Signer signer = new Signer(Signer.Policy.VERIFY_ALWAYS);
+        SigningSession session = new SigningSession(keystore, signer);
+        List<Signature> sigs = session.signAll(Arrays.asList(keyA, keyB), tx, 0, SignatureModifier.ALL_INPUT_ALL_OUTPUT);
+        Signature sig = session.sign(keyA, tx, 1, SignatureModifier.SINGLE_INPUT_ALL_OUTPUT);
+
+        // the transaction and its ancestors are materialized once
+        assertEquals(2, session.getContext().size());
+        assertSame(session.getSighashEngine(tx), session.getSighashEngine(tx));
+        assertEquals(2, session.getSighashEngine(tx).size());
+        assertEquals(3, signer.getComputedCount());
+
+        // same signatures of a one-off computation
+        for (int i = 0; i < 2; i++) {
+            PrivateKey key = i == 0 ? keyA : keyB;
+            assertEquals(Signature.computeSignature(key, tx, keystore, 0, SignatureModifier.ALL_INPUT_ALL_OUTPUT),
+                sigs.get(i));
+        }
+        assertEquals(Signature.computeSignature(keyA, tx, keystore, 1, SignatureModifier.SINGLE_INPUT_ALL_OUTPUT),
+            sig);
+        assertEquals(keyA.toPublicKey(), sig.getPubkey().get());
+    }
+}
@@ -16,9 +16,12 @@
 package xyz.balzaclang.lib.model.transaction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Set;
+
 import org.junit.Test;
 
 import com.google.common.collect.Sets;
@@ -160,6 +163,109 @@ public class TransactionBuilderTest {
         assertTrue(hook_A_B.value == true);
     }
 
+    @Test
+    public void test_hook_chain() {
+
+        TransactionBuilder tb = new TransactionBuilder(NetworkType.MAINNET);
+        int n = 50;
+        int[] executed = new int[n];
+
+        // hook i depends on variables 0..i
+        for (int i = 0; i < n; i++) {
+            tb.addVariable("v" + i, Primitive.Number.class);
+        }
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            Set<String> names = Sets.newHashSet();
+            for (int j = 0; j <= i; j++) {
+                names.add("v" + j);
+            }
+            tb.addHookToVariableBinding(names, values -> {
+                assertEquals(index + 1, values.size());
+                executed[index]++;
+            });
+        }
+
+        // bind in reverse order, hooks fire only with the last variable
+        for (int i = n - 1; i > 0; i--) {
+            tb.bindVariable("v" + i, Primitive.of(i));
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(0, executed[i]);
+        }
+        tb.bindVariable("v0", Primitive.of(0));
+        for (int i = 0; i < n; i++) {
+            assertEquals(1, executed[i]);
+        }
+        assertTrue(tb.hasHook("v0") == false);
+    }
+
+    @Test
+    public void test_hook_removeVariable() {
+
+        TransactionBuilder tb = new TransactionBuilder(NetworkType.MAINNET);
+        tb.addVariable("a", Primitive.Number.class);
+        MutableBoolean hook_A = new MutableBoolean();
+
+        tb.addHookToVariableBinding(Sets.newHashSet("a"), values -> {
+            hook_A.value = true;
+        });
+        tb.removeVariable("a");
+        assertTrue(tb.hasHook("a") == false);
+
+        tb.addVariable("a", Primitive.Number.class);
+        tb.bindVariable("a", Primitive.of(42));
+        assertTrue(hook_A.value == false);
+    }
+
+    @Test
+    public void test_ready_propagation() {
+        CoinbaseTransactionBuilder coinbase = new CoinbaseTransactionBuilder(NetworkType.TESTNET);
+        coinbase.addInput(InputScript.create().number(42));
+        coinbase.addOutput(OutputScript.createP2SH().number(1), 10_000);
+
+        TransactionBuilder parent = new TransactionBuilder(NetworkType.TESTNET);
+        parent.addVariable("a", Primitive.Number.class);
+        parent.addInput(coinbase, 0, InputScript.createP2SH(OutputScript.createP2SH().number(1)));
+        parent.addOutput(OutputScript.createP2SH().number(1), 5_000);
+
+        // diamond: both the children redeem the parent
+        TransactionBuilder left = new TransactionBuilder(NetworkType.TESTNET);
+        left.addInput(parent, 0, InputScript.createP2SH(OutputScript.createP2SH().number(1)));
+        left.addOutput(OutputScript.createP2SH().number(1), 1_000);
+        TransactionBuilder right = new TransactionBuilder(NetworkType.TESTNET);
+        right.addInput(parent, 0, InputScript.createP2SH(OutputScript.createP2SH().number(1)));
+        right.addOutput(OutputScript.createP2SH().number(1), 1_000);
+
+        TransactionBuilder child = new TransactionBuilder(NetworkType.TESTNET);
+        child.addInput(left, 0, InputScript.createP2SH(OutputScript.createP2SH().number(1)));
+        child.addInput(right, 0, InputScript.createP2SH(OutputScript.createP2SH().number(1)));
+        child.addOutput(OutputScript.createP2SH().number(1), 1_000);
+
+        assertFalse(child.isReady());
+        assertFalse(left.isReady());
+
+        // a copy keeps track of its dependents
+        TransactionBuilder childCopy = ObjectUtils.deserializeObjectFromStringQuietly(
+            ObjectUtils.serializeObjectToStringQuietly(child), TransactionBuilder.class);
+        assertFalse(childCopy.isReady());
+        TransactionBuilder parentCopy = (TransactionBuilder) childCopy.getInputs().get(0).getParentTx().getInputs()
+            .get(0).getParentTx();
+        parentCopy.bindVariable("a", Primitive.of(1));
+        assertTrue(childCopy.isReady());
+        assertFalse(child.isReady());
+
+        parent.bindVariable("a", Primitive.of(1));
+        assertTrue(child.isReady());
+        assertTrue(left.isReady());
+        assertTrue(right.isReady());
+
+        parent.addVariable("b", Primitive.Number.class);
+        assertFalse(child.isReady());
+        assertFalse(right.isReady());
+        assertTrue(childCopy.isReady());
+    }
+
     class MutableBoolean {
 
         boolean value;
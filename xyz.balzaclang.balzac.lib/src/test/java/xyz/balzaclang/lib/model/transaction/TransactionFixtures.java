@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.model.transaction;
+
+import org.bitcoinj.core.Transaction.SigHash;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.model.PrivateKey;
+import xyz.balzaclang.lib.model.script.InputScript;
+import xyz.balzaclang.lib.model.script.OutputScript;
+
+/*
+ * Testnet transactions whose outputs can be redeemed by anyone
+ */
+final class TransactionFixtures {
+
+    private TransactionFixtures() {
+    }
+
+    static OutputScript alwaysTrue() {
+        return OutputScript.createP2SH().number(1);
+    }
+
+    static InputScript redeemAlwaysTrue() {
+        return InputScript.createP2SH(alwaysTrue());
+    }
+
+    /*
+     * Add an input and the given number of outputs of 10000 satoshis
+     */
+    static <T extends CoinbaseTransactionBuilder> T coinbase(T coinbase, int outputs) {
+        coinbase.addInput(InputScript.create().number(42));
+        for (int i = 0; i < outputs; i++) {
+            coinbase.addOutput(alwaysTrue(), 10_000);
+        }
+        return coinbase;
+    }
+
+    static CoinbaseTransactionBuilder coinbase(int outputs) {
+        return coinbase(new CoinbaseTransactionBuilder(NetworkType.TESTNET), outputs);
+    }
+
+    static TransactionBuilder spend(ITransactionBuilder parent, int outIndex, long value) {
+        return spend(parent, outIndex, redeemAlwaysTrue(), value);
+    }
+
+    /*
+     * Spend the given output with a signature of the given key, besides the redeem script
+     */
+    static TransactionBuilder spend(ITransactionBuilder parent, int outIndex, PrivateKey key, long value) {
+        InputScript script = redeemAlwaysTrue();
+        script.signaturePlaceholder(PrivateKeysStore.getUniqueID(key), SigHash.ALL, false);
+        return spend(parent, outIndex, script, value);
+    }
+
+    private static TransactionBuilder spend(ITransactionBuilder parent, int outIndex, InputScript script,
+        long value) {
+        TransactionBuilder tx = new TransactionBuilder(NetworkType.TESTNET);
+        tx.addInput(parent, outIndex, script);
+        tx.addOutput(alwaysTrue(), value);
+        return tx;
+    }
+}
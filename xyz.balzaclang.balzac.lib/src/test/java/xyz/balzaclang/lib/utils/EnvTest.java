@@ -17,11 +17,16 @@ package xyz.balzaclang.lib.utils;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Set;
+
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
+
 public class EnvTest {
 
     @Test
@@ -186,6 +191,37 @@ public class EnvTest {
         assertFalse(env.hasVariable("a"));
     }
 
+    @Test
+    public void test_freeVariables() {
+        Env<Number> env = new Env<Number>();
+
+        env.addVariable("a", Integer.class);
+        env.addVariable("b", Integer.class);
+        env.addVariable("b", Integer.class); // already defined
+        assertFalse(env.isReady());
+        assertEquals(ImmutableSet.of("a", "b"), env.getFreeVariables());
+        assertSame(env.getFreeVariables(), env.getFreeVariables());
+
+        Set<String> variables = env.getVariables();
+        env.bindVariable("a", 42);
+        assertEquals(ImmutableSet.of("a", "b"), variables); // snapshot
+        assertEquals(ImmutableSet.of("b"), env.getFreeVariables());
+        assertEquals(ImmutableSet.of("a"), env.getBoundVariables());
+        assertFalse(env.isReady());
+
+        env.removeVariable("b");
+        assertTrue(env.isReady());
+        assertTrue(env.getFreeVariables().isEmpty());
+
+        env.removeVariable("a");
+        env.addVariable("c", Integer.class);
+        assertFalse(env.isReady());
+
+        env.clear();
+        assertTrue(env.isReady());
+        assertTrue(env.getVariables().isEmpty());
+    }
+
     @Test
     public void test_equals() {
         Env<Number> env1 = new Env<Number>();
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentMapTest {
+
+    /* A key with a poor hash, to exercise collisions */
+    private record Key(int value) {
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+    }
+
+    @Test
+    public void test_putGetRemove() {
+        PersistentMap<String, Integer> empty = PersistentMap.empty();
+        PersistentMap<String, Integer> m1 = empty.put("a", 1);
+        PersistentMap<String, Integer> m2 = m1.put("b", 2);
+        PersistentMap<String, Integer> m3 = m2.put("a", 3);
+
+        assertTrue(empty.isEmpty());
+        assertEquals(1, m1.size());
+        assertEquals(2, m3.size());
+        assertEquals(1, (int) m2.get("a"));
+        assertEquals(3, (int) m3.get("a"));
+        assertNull(m1.get("b"));
+        assertFalse(m1.containsKey("b"));
+
+        assertSame(m3, m3.put("b", m3.get("b")));
+        assertSame(m3, m3.remove("c"));
+        assertEquals(m1, m2.remove("b"));
+        assertTrue(m1.remove("a").isEmpty());
+    }
+
+    @Test
+    public void test_sameAsHashMap() {
+        Random random = new Random(42);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> actual = PersistentMap.empty();
+
+        for (int i = 0; i < 20_000; i++) {
+            Key key = new Key(random.nextInt(2_000));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.remove(key);
+            }
+            else {
+                int value = random.nextInt(10);
+                expected.put(key, value);
+                actual = actual.put(key, value);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual.toMap());
+        assertEquals(expected.hashCode(), actual.hashCode());
+        for (Key key : expected.keySet()) {
+            assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+
+    @Test
+    public void test_deepTrie() {
+        PersistentMap<Integer, Integer> m = PersistentMap.empty();
+        for (int i = 0; i < 100_000; i++) {
+            m = m.put(i * 31, i);
+        }
+        assertEquals(100_000, m.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, (int) m.get(i * 31));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            m = m.remove(i * 31);
+        }
+        assertTrue(m.isEmpty());
+        assertEquals(0, m.hashCode());
+    }
+
+    @Test
+    public void test_equality() {
+        PersistentMap<String, Integer> m1 = PersistentMap.<String, Integer>empty().put("a", 1).put("b", 2);
+        PersistentMap<String, Integer> m2 = PersistentMap.<String, Integer>empty().put("b", 2).put("a", 1);
+        PersistentMap<String, Integer> m3 = m2.put("a", 2).put("b", 1);
+
+        assertEquals(m1, m2);
+        assertEquals(m1.hashCode(), m2.hashCode());
+        assertNotEquals(m1, m3);
+        assertEquals(m1, m3.put("a", 1).put("b", 2));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStoreException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bitcoinj.core.Utils;
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.model.script.InputScript;
+import xyz.balzaclang.lib.model.script.OutputScript;
+import xyz.balzaclang.lib.model.transaction.CoinbaseTransactionBuilder;
+import xyz.balzaclang.lib.model.transaction.TransactionBuilder;
+
+public class RawTransactionsValidatorTest {
+
+    private static String rawTransaction(int amount) throws KeyStoreException {
+        CoinbaseTransactionBuilder coinbase = new CoinbaseTransactionBuilder(NetworkType.TESTNET);
+        coinbase.addInput(InputScript.create().number(42));
+        coinbase.addOutput(OutputScript.createP2SH().number(1), 10_000);
+
+        TransactionBuilder tx = new TransactionBuilder(NetworkType.TESTNET);
+        tx.addInput(coinbase, 0, InputScript.createP2SH(OutputScript.createP2SH().number(1)));
+        tx.addOutput(OutputScript.createP2SH().number(1), amount);
+        return Utils.HEX.encode(tx.toTransaction(new PrivateKeysStore()).bitcoinSerialize());
+    }
+
+    @Test
+    public void test_validate() throws IOException, KeyStoreException {
+        StringBuilder input = new StringBuilder();
+        int size = 100;
+        for (int i = 0; i < size; i++) {
+            if (i % 10 == 3) {
+                input.append("0100zz\n");
+            }
+            else if (i % 10 == 7) {
+                input.append("010\r\n\n"); // followed by a blank line
+            }
+            else {
+                input.append(rawTransaction(1_000 + i).toUpperCase()).append(i % 2 == 0 ? "\n" : "\r\n");
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            RawTransactionsValidator validator = new RawTransactionsValidator(NetworkType.TESTNET, executor, 3);
+            List<ValidationResult> results = validator
+                .validate(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.US_ASCII)));
+
+            assertEquals(size, results.size());
+            for (int i = 0; i < size; i++) {
+                ValidationResult res = results.get(i);
+                if (i % 10 == 3) {
+                    assertTrue(res.error);
+                    assertEquals("Invalid hex character 'z' at position 4", res.message);
+                }
+                else if (i % 10 == 7) {
+                    assertTrue(res.error);
+                    assertEquals("Odd number of hex digits", res.message);
+                }
+                else {
+                    assertFalse(res.message, res.error);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_invalidTransaction() throws IOException, KeyStoreException {
+        String input = rawTransaction(1_000) + "\n00000000\n" + rawTransaction(2_000); // no trailing newline
+        List<ValidationResult> results = new RawTransactionsValidator(NetworkType.TESTNET)
+            .validate(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(3, results.size());
+        assertFalse(results.get(0).error);
+        assertTrue(results.get(1).error);
+        assertFalse(results.get(2).error);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.lib.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.KeyStoreException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.model.script.InputScript;
+import xyz.balzaclang.lib.model.script.OutputScript;
+import xyz.balzaclang.lib.model.transaction.CoinbaseTransactionBuilder;
+import xyz.balzaclang.lib.model.transaction.MaterializationContext;
+import xyz.balzaclang.lib.model.transaction.TransactionBuilder;
+import xyz.balzaclang.lib.validation.ValidationResult.InputValidationError;
+
+public class ValidatorTest {
+
+    private static TransactionBuilder spendAll(int size, int... wrongInputs) {
+        CoinbaseTransactionBuilder coinbase = new CoinbaseTransactionBuilder(NetworkType.TESTNET);
+        coinbase.addInput(InputScript.create().number(42));
+        for (int i = 0; i < size; i++) {
+            coinbase.addOutput(OutputScript.createP2SH().number(1), 10_000);
+        }
+
+        TransactionBuilder tx = new TransactionBuilder(NetworkType.TESTNET);
+        for (int i = 0; i < size; i++) {
+            boolean wrong = false;
+            for (int w : wrongInputs) {
+                wrong = wrong || w == i;
+            }
+            // a wrong input provides a redeem script not matching the output
+            tx.addInput(coinbase, i, InputScript.createP2SH(OutputScript.createP2SH().number(wrong ? 2 : 1)));
+        }
+        tx.addOutput(OutputScript.createP2SH().number(1), size * 1_000);
+        return tx;
+    }
+
+    @Test
+    public void test_correctlySpends() throws KeyStoreException {
+        TransactionBuilder tx = spendAll(20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertFalse(Validator.checkWitnessesCorrecltySpendsOutputs(tx, new PrivateKeysStore()).error);
+            assertFalse(Validator.checkWitnessesCorrecltySpendsOutputs(tx,
+                new MaterializationContext(new PrivateKeysStore()), executor).error);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_firstFailure() throws KeyStoreException {
+        TransactionBuilder tx = spendAll(20, 13, 7, 18);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ValidationResult sequential = Validator.checkWitnessesCorrecltySpendsOutputs(tx, new PrivateKeysStore());
+            ValidationResult parallel = Validator.checkWitnessesCorrecltySpendsOutputs(tx,
+                new MaterializationContext(new PrivateKeysStore()), executor);
+
+            assertTrue(sequential instanceof InputValidationError);
+            assertTrue(parallel instanceof InputValidationError);
+            assertEquals(7, ((InputValidationError) sequential).index);
+            assertEquals(7, ((InputValidationError) parallel).index);
+            assertEquals(sequential.message, parallel.message);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
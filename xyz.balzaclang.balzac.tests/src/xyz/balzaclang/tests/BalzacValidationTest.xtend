@@ -21,12 +21,26 @@ package xyz.balzaclang.tests
 
 import com.google.inject.Inject
 import xyz.balzaclang.balzac.Model
+import org.eclipse.emf.common.util.BasicDiagnostic
+import org.eclipse.emf.ecore.util.Diagnostician
+import org.eclipse.xtext.diagnostics.Severity
 import org.eclipse.xtext.testing.InjectWith
 import org.eclipse.xtext.testing.XtextRunner
 import org.eclipse.xtext.testing.util.ParseHelper
 import org.eclipse.xtext.testing.validation.ValidationTestHelper
+import org.eclipse.xtext.validation.CheckMode
+import org.junit.Assert
 import org.junit.Test
 import org.junit.runner.RunWith
+import xyz.balzaclang.balzac.Transaction
+import xyz.balzaclang.compiler.TransactionCompiler
+import xyz.balzaclang.lib.PrivateKeysStore
+import xyz.balzaclang.lib.model.NetworkType
+import xyz.balzaclang.lib.model.transaction.ITransactionBuilder
+import xyz.balzaclang.lib.utils.BitcoinUtils
+import xyz.balzaclang.validation.BalzacValidatorCodes
+import xyz.balzaclang.validation.ValidationSession
+import xyz.balzaclang.xsemantics.Rho
 
 @RunWith(XtextRunner)
 @InjectWith(BalzacInjectorProvider)
@@ -34,46 +48,181 @@ class BalzacValidationTest {
 
     @Inject ParseHelper<Model> parseHelper
     @Inject ValidationTestHelper validatorHelper
+    @Inject TransactionCompiler compiler
+    @Inject Diagnostician diagnostician
+
+    val coinbase = '''
+        network testnet
+
+        const k = key:cSthBXr8YQAexpKeh22LB9PdextVE1UJeahmyns5LzcmMDSy59L4
+
+        transaction T {
+            input = _
+            output = 1 BTC: fun(x) . versig(k; x)
+        }
+    '''
+
+    def private issues(Model model, Severity severity, String message) {
+        validatorHelper.validate(model).filter[it.severity == severity && it.message == message].toList
+    }
+
+    /*
+     * Validate the model, return the session of the run
+     */
+    def private ValidationSession validateWithSession(Model model) {
+        val context = <Object, Object>newHashMap
+        context.put(CheckMode.KEY, CheckMode.ALL)
+        diagnostician.validate(model, new BasicDiagnostic, context)
+        return context.get(ValidationSession -> model.eResource) as ValidationSession
+    }
 
     @Test
     def void transactionDeclaration() {
-//      val result = parseHelper.parse('''
-//          transaction T {
-//
-//          }
-//
-//          transaction T {
-//
-//          }
-//      ''')
-//      Assert.assertNotNull(result)
-//      Assert.assertTrue(result.eResource.errors.isEmpty)
-//
-//      validatorHelper.assertError(
-//          result.eResource,
-//          BalzacFactory.eINSTANCE.createTransactionDeclaration.eClass,
-//          IssueCodes.TRANSACTION_DECLARATION__DUPLICATED_NAME
-//      )
+        val model = parseHelper.parse(coinbase + '''
+            transaction T {
+                input = _
+                output = 1 BTC: fun(x) . versig(k; x)
+            }
+
+            const T = 42
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // one error for each declaration
+        Assert.assertEquals(3, model.issues(Severity.ERROR, "Duplicated name T").size)
+        Assert.assertTrue(model.issues(Severity.ERROR, "Duplicated name k").isEmpty)
+    }
+
+    @Test
+    def void participantConstantDeclaration() {
+        val model = parseHelper.parse(coinbase + '''
+            participant Alice {
+                private const a = 1
+                const a = 2
+                const b = 3
+            }
+
+            const a = 4
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // the declarations of a participant are in their own scope
+        Assert.assertEquals(2, model.issues(Severity.ERROR, "Duplicated name a").size)
+        Assert.assertTrue(model.issues(Severity.ERROR, "Duplicated name b").isEmpty)
     }
 
     @Test
     def void participantDeclaration() {
-//      val result = parseHelper.parse('''
-//          participant A {
-//
-//          }
-//
-//          participant A {
-//
-//          }
-//      ''')
-//      Assert.assertNotNull(result)
-//      Assert.assertTrue(result.eResource.errors.isEmpty)
-//
-//      validatorHelper.assertError(
-//          result.eResource,
-//          BalzacFactory.eINSTANCE.createParticipant.eClass,
-//          IssueCodes.PARTICIPANT_DECLARATION__DUPLICATED_NAME
-//      )
+        val model = parseHelper.parse('''
+            participant A {
+            }
+
+            participant A {
+            }
+
+            participant A {
+            }
+
+            participant B {
+            }
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // one error for each participant
+        Assert.assertEquals(3, model.issues(Severity.ERROR, "Duplicated name A").size)
+        Assert.assertTrue(model.issues(Severity.ERROR, "Duplicated name B").isEmpty)
+    }
+
+    @Test
+    def void versigDuplicatedKeys() {
+        val model = parseHelper.parse(coinbase + '''
+            const k2 = key:cQtkW1zgFCckRYvJ2Nm8rryV825GyDJ51qoJCw72rhHG4YmGfYgZ
+            const k3 = key:cSthBXr8YQAexpKeh22LB9PdextVE1UJeahmyns5LzcmMDSy59L4
+
+            transaction T1 {
+                input = T: sig(k)
+                output = 1 BTC: fun(x, y) . versig(k, k2, k3; x, y)
+            }
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // k and k3 are the same key, one warning for each of them
+        val warnings = validatorHelper.validate(model).filter[code == BalzacValidatorCodes.WARNING_VERSIG_DUPLICATED_PUBKEY]
+        Assert.assertEquals(#{"0", "2"}, warnings.map[data.head].toSet)
+    }
+
+    @Test
+    def void duplicatedRelativeTimelock() {
+        val model = parseHelper.parse(coinbase + '''
+            transaction T1(t:transaction) {
+                input = T: sig(k)
+                output = 1 BTC: fun(x) . versig(k; x)
+                relLock = [
+                    10 block from T;
+                    20 block from T;
+                    30 block from t
+                ]
+            }
+
+            transaction T2 {
+                input = T: sig(k)
+                output = 1 BTC: fun(x) . versig(k; x)
+                relLock = [
+                    10 block from T;
+                    20 block from T1(T)
+                ]
+            }
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // the timelock from 't' cannot be evaluated and does not prevent the check
+        Assert.assertEquals(2, model.issues(Severity.ERROR, "Duplicated relative timelock").size)
+    }
+
+    @Test
+    def void validationSession() {
+        val model = parseHelper.parse(coinbase + '''
+            transaction T1 {
+                input = T: sig(k)
+                output = 1 BTC: fun(x) . versig(k; x)
+            }
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+        val t1 = model.declarations.filter(Transaction).findFirst[name == 'T1']
+
+        val session = model.validateWithSession
+        Assert.assertNotNull(session)
+
+        // the checks shared the interpretation of T1 and its materialization
+        val size = session.size
+        val res = session.interpretE(t1)
+        Assert.assertEquals(size, session.size)
+        Assert.assertTrue(session.materializationContext.isMaterialized(res.first as ITransactionBuilder))
+
+        // another run has its own session
+        val other = model.validateWithSession
+        Assert.assertNotSame(session, other)
+        Assert.assertNotSame(session.materializationContext, other.materializationContext)
+        Assert.assertEquals(size, session.size)
+    }
+
+    @Test
+    def void doubleSpendingOfSerializedCopy() {
+        // the serialization of T
+        val parent = parseHelper.parse(coinbase)
+        val tx = compiler.compileTransaction(parent.declarations.filter(Transaction).head, new Rho(NetworkType.TESTNET))
+        val serial = BitcoinUtils.encode(tx.toTransaction(new PrivateKeysStore).bitcoinSerialize)
+
+        val model = parseHelper.parse(coinbase + '''
+            transaction T1 {
+                input = [
+                    T: sig(k);
+                    tx:«serial»: sig(k) [fun(x) . versig(k; x)]
+                ]
+                output = 1 BTC: fun(x) . versig(k; x)
+            }
+        ''')
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+        Assert.assertEquals(2, model.issues(Severity.ERROR, "Double spending. You cannot redeem the output twice.").size)
     }
 }
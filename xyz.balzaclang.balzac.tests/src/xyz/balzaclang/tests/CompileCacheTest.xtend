@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.tests
+
+import com.google.inject.Inject
+import org.eclipse.xtext.testing.InjectWith
+import org.eclipse.xtext.testing.XtextRunner
+import org.eclipse.xtext.testing.util.ParseHelper
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import xyz.balzaclang.balzac.Model
+import xyz.balzaclang.balzac.Transaction
+import xyz.balzaclang.compiler.CompileCache
+import xyz.balzaclang.compiler.TransactionCompiler
+import xyz.balzaclang.lib.model.NetworkType
+import xyz.balzaclang.lib.model.transaction.TransactionBuilder
+import xyz.balzaclang.xsemantics.Rho
+
+@RunWith(XtextRunner)
+@InjectWith(BalzacInjectorProvider)
+class CompileCacheTest {
+
+    @Inject ParseHelper<Model> parseHelper
+    @Inject TransactionCompiler compiler
+    @Inject CompileCache cache
+
+    val source = '''
+        network testnet
+
+        transaction P(n:int) {
+            input = _
+            output = 1 BTC: fun(x) . x == n
+        }
+    '''
+
+    def private transaction(Model model) {
+        model.declarations.filter(Transaction).head
+    }
+
+    def private Rho bind(Transaction tx, long n) {
+        new Rho(NetworkType.TESTNET).bind(tx.params.head, n)
+    }
+
+    @Test
+    def void hitOnEqualValues() {
+        val tx = parseHelper.parse(source).transaction
+
+        val tb = compiler.compileTransaction(tx, tx.bind(1))
+        val hits = cache.stats.hits
+        Assert.assertSame(tb, compiler.compileTransaction(tx, tx.bind(1)))
+        Assert.assertEquals(hits + 1, cache.stats.hits)
+    }
+
+    @Test
+    def void missOnDifferentValues() {
+        val tx = parseHelper.parse(source).transaction
+
+        val tb = compiler.compileTransaction(tx, tx.bind(1))
+        val misses = cache.stats.misses
+        Assert.assertNotSame(tb, compiler.compileTransaction(tx, tx.bind(2)))
+        Assert.assertEquals(misses + 1, cache.stats.misses)
+        Assert.assertNotEquals(CompileCache.key(tx, tx.bind(1)), CompileCache.key(tx, tx.bind(2)))
+    }
+
+    @Test
+    def void freeParametersAreNotCached() {
+        val tx = parseHelper.parse(source).transaction
+        val rho = new Rho(NetworkType.TESTNET)
+        Assert.assertNull(CompileCache.key(tx, rho))
+
+        // the cache is not even looked up
+        val stats = cache.stats
+        val tb = compiler.compileTransaction(tx, rho)
+        Assert.assertNotSame(tb, compiler.compileTransaction(tx, rho))
+        Assert.assertEquals(stats, cache.stats)
+        Assert.assertTrue((tb as TransactionBuilder).hasVariable('n'))
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.tests
+
+import com.google.inject.Inject
+import org.eclipse.xtext.testing.InjectWith
+import org.eclipse.xtext.testing.XtextRunner
+import org.eclipse.xtext.testing.util.ParseHelper
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import xyz.balzaclang.balzac.Model
+import xyz.balzaclang.balzac.Transaction
+import xyz.balzaclang.compiler.TransactionCompiler
+import xyz.balzaclang.lib.model.NetworkType
+import xyz.balzaclang.xsemantics.Rho
+
+@RunWith(XtextRunner)
+@InjectWith(BalzacInjectorProvider)
+class ConstantFolderTest {
+
+    @Inject ParseHelper<Model> parseHelper
+    @Inject TransactionCompiler compiler
+
+    val source = '''
+        network testnet
+
+        const k = key:cSthBXr8YQAexpKeh22LB9PdextVE1UJeahmyns5LzcmMDSy59L4
+        const h = T.txid
+
+        transaction T {
+            input = _
+            output = 1 BTC: fun(x) . versig(k; x)
+        }
+
+        transaction T1 {
+            input = _
+            output = 1 BTC: fun(x) . x == T.txid
+        }
+
+        transaction T1_const {
+            input = _
+            output = 1 BTC: fun(x) . x == h
+        }
+
+        transaction T2 {
+            input = T: sig(k)
+            output = 1 BTC: fun(x) . versig(k; x)
+        }
+
+        transaction T3 {
+            input = T: sig(k) of T2
+            output = 1 BTC: fun(x) . versig(k; x)
+        }
+    '''
+
+    def private compile(Model model, String name) {
+        val tx = model.declarations.filter(Transaction).findFirst[it.name == name]
+        return compiler.compileTransaction(tx, new Rho(NetworkType.TESTNET))
+    }
+
+    @Test
+    def void transactionIdInScript() {
+        val model = parseHelper.parse(source)
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // 'T' is not folded, 'T.txid' is
+        val tx = model.compile('T1')
+        Assert.assertEquals(model.compile('T1_const').outputs, tx.outputs)
+    }
+
+    @Test
+    def void signatureOfTransactionInWitness() {
+        val model = parseHelper.parse(source)
+        Assert.assertTrue(model.eResource.errors.isEmpty)
+
+        // 'T2' is not folded, 'sig(k) of T2' is
+        val tx = model.compile('T3')
+        Assert.assertTrue(tx.isReady)
+        Assert.assertEquals(1, tx.inputs.size)
+    }
+}
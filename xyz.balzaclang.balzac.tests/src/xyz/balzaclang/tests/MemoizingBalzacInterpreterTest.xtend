@@ -0,0 +1,113 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.tests
+
+import com.google.inject.Inject
+import org.eclipse.xtext.testing.InjectWith
+import org.eclipse.xtext.testing.XtextRunner
+import org.eclipse.xtext.testing.util.ParseHelper
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import xyz.balzaclang.balzac.BalzacFactory
+import xyz.balzaclang.balzac.Constant
+import xyz.balzaclang.balzac.Model
+import xyz.balzaclang.balzac.Transaction
+import xyz.balzaclang.lib.model.NetworkType
+import xyz.balzaclang.xsemantics.BalzacInterpreter
+import xyz.balzaclang.xsemantics.MemoizingBalzacInterpreter
+import xyz.balzaclang.xsemantics.Rho
+
+@RunWith(XtextRunner)
+@InjectWith(BalzacInjectorProvider)
+class MemoizingBalzacInterpreterTest {
+
+    @Inject ParseHelper<Model> parseHelper
+    @Inject BalzacInterpreter interpreter
+
+    val source = '''
+        network testnet
+
+        const k = key:cSthBXr8YQAexpKeh22LB9PdextVE1UJeahmyns5LzcmMDSy59L4
+        const a = 1 + 2
+
+        transaction T {
+            input = _
+            output = 1 BTC: fun(x) . versig(k; x)
+        }
+
+        transaction T1 {
+            input = T: sig(k)
+            output = this.input.value - 1000: fun(x) . versig(k; x)
+        }
+    '''
+
+    def private constant(Model model, String name) {
+        model.declarations.filter(Constant).findFirst[it.name == name].exp
+    }
+
+    @Test
+    def void memoizingInterpreterIsBound() {
+        Assert.assertTrue(interpreter instanceof MemoizingBalzacInterpreter)
+    }
+
+    @Test
+    def void sameExpressionAndRho() {
+        val model = parseHelper.parse(source)
+        val exp = model.constant('a')
+
+        val res = interpreter.interpret(exp, new Rho(NetworkType.TESTNET))
+        Assert.assertFalse(res.failed)
+        Assert.assertEquals(3L, res.first)
+
+        // an equal rho hits the cache, another one does not
+        Assert.assertSame(res, interpreter.interpret(exp, new Rho(NetworkType.TESTNET)))
+        Assert.assertNotSame(res, interpreter.interpret(exp, new Rho(NetworkType.MAINNET)))
+    }
+
+    @Test
+    def void evictionOnChange() {
+        val model = parseHelper.parse(source)
+        val exp = model.constant('a')
+
+        val res = interpreter.interpret(exp, new Rho(NetworkType.TESTNET))
+        Assert.assertSame(res, interpreter.interpret(exp, new Rho(NetworkType.TESTNET)))
+
+        // edit the resource
+        val c = BalzacFactory.eINSTANCE.createConstant
+        c.name = 'b'
+        c.exp = BalzacFactory.eINSTANCE.createNumberLiteral => [value = 4]
+        model.declarations.add(c)
+
+        val other = interpreter.interpret(exp, new Rho(NetworkType.TESTNET))
+        Assert.assertNotSame(res, other)
+        Assert.assertEquals(res.first, other.first)
+    }
+
+    @Test
+    def void thisIsNotMemoized() {
+        val model = parseHelper.parse(source)
+        val exp = model.declarations.filter(Transaction).findFirst[name == 'T1'].outputs.head.value
+
+        val res = interpreter.interpret(exp, new Rho(NetworkType.TESTNET))
+        Assert.assertFalse(res.failed)
+
+        // 'this' is evaluated again at each interpretation
+        val other = interpreter.interpret(exp, new Rho(NetworkType.TESTNET))
+        Assert.assertNotSame(res, other)
+        Assert.assertEquals(res.first, other.first)
+    }
+}
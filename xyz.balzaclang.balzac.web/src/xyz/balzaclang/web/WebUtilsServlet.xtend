@@ -23,6 +23,7 @@ import jakarta.servlet.http.HttpServlet
 import jakarta.servlet.http.HttpServletRequest
 import jakarta.servlet.http.HttpServletResponse
 import java.io.IOException
+import java.util.List
 import org.apache.commons.io.IOUtils
 import org.eclipse.xtend.lib.annotations.Accessors
 import xyz.balzaclang.lib.model.Address
@@ -48,6 +49,8 @@ class WebUtilsServlet extends HttpServlet {
     @Accessors
     static class HashRequest {
         val String value
+        val List<String> values     // batch mode
+        val String algorithm        // batch mode, optional
         val boolean hashAsString
     }
 
@@ -62,6 +65,13 @@ class WebUtilsServlet extends HttpServlet {
         val String hash160
     }
 
+    @Accessors
+    static class HashBatchResult {
+        val String type
+        val List<String> values
+        val List<String> hashes
+    }
+
     override protected doPost(HttpServletRequest req, HttpServletResponse response) throws ServletException, IOException {
         if (req.requestURI.contains("/api/keys")) {
             val key = PrivateKey.fresh(NetworkType.TESTNET)
@@ -90,48 +100,44 @@ class WebUtilsServlet extends HttpServlet {
                 }
 
                 val valueToHash = hashRequest.value
+                val valuesToHash = hashRequest.values
                 val hashAsString = hashRequest.hashAsString
 
                 // Parameter check
-                if (valueToHash === null) {
+                if (valueToHash === null && valuesToHash === null) {
                     response.status = HttpServletResponse.SC_BAD_REQUEST
                     IOUtils.write("Missing field 'value'\n", response.writer)
                     return
                 }
 
-                if (hashAsString) {
-                    gson.toJson(hash(valueToHash), response.writer)
-                    return
-                }
+                if (valuesToHash !== null) {
+                    if (valuesToHash.contains(null)) {
+                        response.status = HttpServletResponse.SC_BAD_REQUEST
+                        IOUtils.write("Field 'values' cannot contain null\n", response.writer)
+                        return
+                    }
 
-                try {
-                    /*
-                     * Try to interpret value as Integer
-                     */
-                    gson.toJson(hash(Long.parseLong(valueToHash)), response.writer)
-                    return
-                }
-                catch (NumberFormatException e) {
-                    /*
-                     * Try to interpret true/false
-                     */
-                    if (valueToHash.toLowerCase == "true") {
-                        gson.toJson(hash(true), response.writer)
+                    val inputs = valuesToHash.map[v|v.toHashInput(hashAsString)].toList
+
+                    if (hashRequest.algorithm === null) {
+                        gson.toJson(inputs.map[i|hash(i)].toList, response.writer)
                         return
                     }
 
-                    if (valueToHash.toLowerCase == "false") {
-                        gson.toJson(hash(false), response.writer)
+                    val alg = HashAlgorithm.values.findFirst[a|a.name.equalsIgnoreCase(hashRequest.algorithm)]
+                    if (alg === null) {
+                        response.status = HttpServletResponse.SC_BAD_REQUEST
+                        IOUtils.write("Unknown algorithm '" + hashRequest.algorithm + "'\n", response.writer)
                         return
                     }
 
-                    /*
-                     * Finally treat it as a String
-                     */
-                    gson.toJson(hash(valueToHash), response.writer)
+                    val hashes = Hash.hashBatch(inputs, alg).map[toString].toList
+                    gson.toJson(new HashBatchResult(alg.name, valuesToHash, hashes), response.writer)
                     return
                 }
 
+                gson.toJson(hash(valueToHash.toHashInput(hashAsString)), response.writer)
+                return
             }
             catch (JsonParseException e) {
                 response.status = HttpServletResponse.SC_BAD_REQUEST
@@ -147,15 +153,40 @@ class WebUtilsServlet extends HttpServlet {
         response.status = HttpServletResponse.SC_NOT_FOUND
     }
 
+    /*
+     * Interpret the value as an integer or a boolean, falling back to a string
+     */
+    private def Object toHashInput(String value, boolean hashAsString) {
+        if (hashAsString) {
+            return value
+        }
+
+        try {
+            return Long.parseLong(value)
+        }
+        catch (NumberFormatException e) {
+            if (value.toLowerCase == "true") {
+                return true
+            }
+
+            if (value.toLowerCase == "false") {
+                return false
+            }
+
+            return value
+        }
+    }
+
     private def HashResult hash(Object b) {
+        val hashes = Hash.hashAll(b)
         new HashResult(
             b.toString,
             b.class.simpleName,
-            Hash.hash(b, HashAlgorithm.SHA1).toString,
-            Hash.hash(b, HashAlgorithm.SHA256).toString,
-            Hash.hash(b, HashAlgorithm.RIPEMD160).toString,
-            Hash.hash(b, HashAlgorithm.HASH256).toString,
-            Hash.hash(b, HashAlgorithm.HASH160).toString
+            hashes.get(HashAlgorithm.SHA1).toString,
+            hashes.get(HashAlgorithm.SHA256).toString,
+            hashes.get(HashAlgorithm.RIPEMD160).toString,
+            hashes.get(HashAlgorithm.HASH256).toString,
+            hashes.get(HashAlgorithm.HASH160).toString
         )
     }
 }
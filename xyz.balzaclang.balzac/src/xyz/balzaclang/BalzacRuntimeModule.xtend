@@ -34,7 +34,9 @@ import org.eclipse.xtext.scoping.impl.AbstractDeclarativeScopeProvider
 import org.eclipse.xtext.scoping.impl.ImportUriResolver
 import org.eclipse.xtext.scoping.impl.SimpleLocalScopeProvider
 import org.eclipse.xtext.service.SingletonBinding
+import xyz.balzaclang.xsemantics.BalzacInterpreter
 import xyz.balzaclang.xsemantics.BalzacStringRepresentation
+import xyz.balzaclang.xsemantics.MemoizingBalzacInterpreter
 import xyz.balzaclang.scoping.BalzacGlobalScopeProvider
 import xyz.balzaclang.conversion.BalzacConverterService
 
@@ -54,6 +56,11 @@ class BalzacRuntimeModule extends AbstractBalzacRuntimeModule {
         return BalzacStringRepresentation;
     }
 
+    // memoize the interpretation of the expressions of each resource
+    def Class<? extends BalzacInterpreter> bindBalzacInterpreter() {
+        return MemoizingBalzacInterpreter;
+    }
+
     @SingletonBinding(eager=true)
     def Class<? extends BalzacTypeSystemValidator> bindBalzacTypeSystemValidator() {
         return BalzacTypeSystemValidator;
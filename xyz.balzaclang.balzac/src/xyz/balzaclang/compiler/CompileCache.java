@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.compiler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.xtext.util.OnChangeEvictingCache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import xyz.balzaclang.balzac.Parameter;
+import xyz.balzaclang.balzac.Transaction;
+import xyz.balzaclang.lib.model.transaction.ITransactionBuilder;
+import xyz.balzaclang.xsemantics.Rho;
+
+/**
+ * Cache of the compiled transactions.
+ * <p>
+ * A compiled transaction is identified by its AST node and by the values bound
+ * to its parameters, which are the only bindings of rho that the compilation
+ * can depend on. Transaction builders bound to parameters are compared by
+ * identity, since they are mutable; other values are compared by equality. The
+ * cache of each resource is bounded, and it is discarded as soon as the
+ * resource changes.
+ * </p>
+ */
+@Singleton
+public class CompileCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final String CACHE_ID = "compiledTransactions";
+
+    /**
+     * A snapshot of the hits, misses and evictions of the cache.
+     */
+    public record Stats(long hits, long misses, long evictions) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+
+    /**
+     * The key of a compiled transaction. The hash code is computed once.
+     */
+    public static final class Key {
+
+        private final Transaction tx;
+        private final Object[] values;
+        private final int hash;
+
+        private Key(Transaction tx, Object[] values) {
+            this.tx = tx;
+            this.values = values;
+            int result = System.identityHashCode(tx);
+            for (Object v : values) {
+                result = 31 * result + (v instanceof ITransactionBuilder ? System.identityHashCode(v) : v.hashCode());
+            }
+            this.hash = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key other))
+                return false;
+            if (hash != other.hash || tx != other.tx || values.length != other.values.length)
+                return false;
+            for (int i = 0; i < values.length; i++) {
+                Object a = values[i];
+                Object b = other.values[i];
+                if (a instanceof ITransactionBuilder ? a != b : !Objects.equals(a, b))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Key [tx=" + tx.getName() + ", values=" + Arrays.toString(values) + "]";
+        }
+    }
+
+    @Inject
+    private OnChangeEvictingCache resourceCache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    /**
+     * Return the key of the given transaction compiled within rho, or null if
+     * some parameter is not bound. Transactions with free parameters are not
+     * cached, since their builders are bound by the caller after compilation.
+     *
+     * @param tx  the transaction
+     * @param rho the bindings of the parameters
+     * @return the key, or null if the transaction cannot be cached
+     */
+    public static Key key(Transaction tx, Rho rho) {
+        checkNotNull(tx, "'tx' cannot be null");
+        checkNotNull(rho, "'rho' cannot be null");
+        List<Parameter> params = tx.getParams();
+        Object[] values = new Object[params.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = rho.get(params.get(i));
+            if (value == null) {
+                return null;
+            }
+            values[i] = value;
+        }
+        return new Key(tx, values);
+    }
+
+    /**
+     * Return the builder compiled for the given key, or null.
+     *
+     * @param key the key of the compiled transaction
+     * @return the compiled builder, or null if it is not cached
+     */
+    public ITransactionBuilder get(Key key) {
+        checkNotNull(key, "'key' cannot be null");
+        ITransactionBuilder builder = getCache(key).getIfPresent(key);
+        if (builder == null) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+        }
+        return builder;
+    }
+
+    public void put(Key key, ITransactionBuilder builder) {
+        checkNotNull(key, "'key' cannot be null");
+        checkNotNull(builder, "'builder' cannot be null");
+        getCache(key).put(key, builder);
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Set the maximum number of compiled transactions per resource. It applies
+     * to the caches created afterwards.
+     *
+     * @param maximumSize the maximum size
+     */
+    public void setMaximumSize(int maximumSize) {
+        checkArgument(maximumSize >= 0, "'maximumSize' cannot be negative");
+        this.maximumSize = maximumSize;
+    }
+
+    private Cache<Key, ITransactionBuilder> getCache(Key key) {
+        return resourceCache.get(CACHE_ID, key.tx.eResource(),
+            () -> CacheBuilder.newBuilder().maximumSize(maximumSize).<Key, ITransactionBuilder>removalListener(n -> {
+                if (n.wasEvicted()) {
+                    evictions.increment();
+                }
+            }).build());
+    }
+}
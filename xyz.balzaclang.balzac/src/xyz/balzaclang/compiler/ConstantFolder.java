@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.compiler;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xsemantics.runtime.Result;
+
+import com.google.inject.Inject;
+
+import xyz.balzaclang.balzac.ArithmeticSigned;
+import xyz.balzaclang.balzac.Between;
+import xyz.balzaclang.balzac.BitcoinValue;
+import xyz.balzaclang.balzac.BooleanNegation;
+import xyz.balzaclang.balzac.Comparison;
+import xyz.balzaclang.balzac.Div;
+import xyz.balzaclang.balzac.Expression;
+import xyz.balzaclang.balzac.Hash;
+import xyz.balzaclang.balzac.Literal;
+import xyz.balzaclang.balzac.Max;
+import xyz.balzaclang.balzac.Min;
+import xyz.balzaclang.balzac.Minus;
+import xyz.balzaclang.balzac.Plus;
+import xyz.balzaclang.balzac.Reference;
+import xyz.balzaclang.balzac.Signature;
+import xyz.balzaclang.balzac.Size;
+import xyz.balzaclang.balzac.Times;
+import xyz.balzaclang.balzac.ToAddress;
+import xyz.balzaclang.balzac.ToPubkey;
+import xyz.balzaclang.balzac.Transaction;
+import xyz.balzaclang.balzac.TransactionFees;
+import xyz.balzaclang.balzac.TransactionId;
+import xyz.balzaclang.balzac.TransactionInputOperation;
+import xyz.balzaclang.balzac.TransactionOutputOperation;
+import xyz.balzaclang.utils.ASTUtils;
+import xyz.balzaclang.xsemantics.BalzacInterpreter;
+
+/**
+ * Bottom-up constant folding of the expressions of a script.
+ * <p>
+ * Each expression is folded once per compilation context, that is once per
+ * script and rho: the result is a literal if the expression evaluates to a
+ * constant, the expression itself otherwise. Operators that evaluate all their
+ * operands are not interpreted at all when some operand is not constant, since
+ * their evaluation would fail as well. Operands denoting transactions are not
+ * folded, and values without a literal representation are kept as expressions.
+ * </p>
+ */
+public class ConstantFolder {
+
+    @Inject
+    private BalzacInterpreter interpreter;
+
+    @Inject
+    private ASTUtils astUtils;
+
+    /**
+     * Fold the given expression and all its subexpressions, if not already
+     * folded within the given context.
+     *
+     * @param exp the expression to fold
+     * @param ctx the compilation context
+     * @return a literal representing the value of the expression, or the
+     *         expression itself if it is not constant
+     */
+    public Expression fold(Expression exp, Context ctx) {
+        checkNotNull(exp, "'exp' cannot be null");
+        checkNotNull(ctx, "'ctx' cannot be null");
+
+        if (exp instanceof Literal) {
+            return exp;
+        }
+
+        Expression folded = ctx.folded.get(exp);
+        if (folded == null) {
+            boolean constantOperands = true;
+            for (EObject child : exp.eContents()) {
+                if (isTransactionOperand(exp, child)) {
+                    // transactions have no literal, and evaluating them means compiling them
+                    constantOperands = false;
+                }
+                else if (child instanceof Expression operand) {
+                    // fold every operand, they are compiled later if this is not constant
+                    constantOperands &= fold(operand, ctx) instanceof Literal;
+                }
+            }
+
+            folded = exp;
+            if (constantOperands || !isStrict(exp)) {
+                Result<Object> res = interpreter.interpret(exp, ctx.rho);
+                if (!res.failed() && astUtils.isRepresentable(res.getFirst())) {
+                    folded = astUtils.objectToExpression(res.getFirst());
+                }
+            }
+            ctx.folded.put(exp, folded);
+        }
+        return folded;
+    }
+
+    /*
+     * Whether the child is an operand denoting a transaction, like 'T' in
+     * 'T.txid' and in 'sig(k) of T'
+     */
+    private static boolean isTransactionOperand(Expression exp, EObject child) {
+        if (child instanceof Reference ref && ref.getRef() instanceof Transaction) {
+            return true;
+        }
+        if (exp instanceof TransactionId op) {
+            return child == op.getTx();
+        }
+        if (exp instanceof TransactionFees op) {
+            return child == op.getTx();
+        }
+        if (exp instanceof TransactionInputOperation op) {
+            return child == op.getTx();
+        }
+        if (exp instanceof TransactionOutputOperation op) {
+            return child == op.getTx();
+        }
+        if (exp instanceof Signature sig) {
+            return child == sig.getTx();
+        }
+        return false;
+    }
+
+    /*
+     * Whether the interpretation of the expression fails when any of its
+     * operands fails
+     */
+    private static boolean isStrict(Expression exp) {
+        return exp instanceof Plus || exp instanceof Minus || exp instanceof Times || exp instanceof Div
+            || exp instanceof ArithmeticSigned || exp instanceof BitcoinValue || exp instanceof BooleanNegation
+            || exp instanceof Comparison || exp instanceof Min || exp instanceof Max || exp instanceof Between
+            || exp instanceof Hash || exp instanceof Size || exp instanceof ToAddress || exp instanceof ToPubkey;
+    }
+}
@@ -17,7 +17,10 @@
 package xyz.balzaclang.compiler;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
+import xyz.balzaclang.balzac.Expression;
 import xyz.balzaclang.balzac.Parameter;
 import xyz.balzaclang.xsemantics.Rho;
 
@@ -30,6 +33,9 @@ public class Context {
     public final Rho rho;
     public final boolean isP2SH;
 
+    /* The expressions folded by the ConstantFolder within this context */
+    final Map<Expression, Expression> folded = new IdentityHashMap<>();
+
     public Context(Rho rho, boolean isP2SH) {
         this.rho = rho;
         this.isP2SH = isP2SH;
@@ -97,6 +97,7 @@ class ScriptCompiler {
 
     @Inject extension ASTUtils
     @Inject extension BalzacInterpreter
+    @Inject ConstantFolder constantFolder
 
     /**
      * Compile the given input (AST) to an input script class (lib).
@@ -278,7 +279,7 @@ class ScriptCompiler {
 
 
     def private ScriptBuilderWithVar compileExpression(Expression exp, Context ctx) {
-        return exp.interpretSafe(ctx.rho).compileExpressionInternal(ctx)
+        return constantFolder.fold(exp, ctx).compileExpressionInternal(ctx)
     }
 
     // default
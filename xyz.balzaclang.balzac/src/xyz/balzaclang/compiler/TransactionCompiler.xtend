@@ -20,7 +20,6 @@ import com.google.inject.Inject
 import java.util.ArrayList
 import java.util.Collection
 import org.apache.log4j.Logger
-import org.eclipse.xtext.util.OnChangeEvictingCache
 import xyz.balzaclang.balzac.Reference
 import xyz.balzaclang.lib.model.Address
 import xyz.balzaclang.lib.model.script.InputScript
@@ -47,28 +46,33 @@ class TransactionCompiler {
     @Inject extension BalzacInterpreter
     @Inject extension ASTUtils astUtils
     @Inject extension ScriptCompiler
-    @Inject OnChangeEvictingCache cache;
+    @Inject CompileCache cache;
 
     def ITransactionBuilder compileTransaction(Transaction tx, Rho rho) {
         logger.debug('''Compiling «tx.name». Rho «rho.entrySet.map[e|'''«e.key.name -> e.value.toString»''']»''')
-        var key = 1;
-        val prime = 31;
-        key = prime * key + tx.hashCode
-        key = prime * key + rho.hashCode
-        return cache.get(key, tx.eResource, [
-            logger.debug('''Cache hit. Generating...''')
-            internalCompileTransaction(tx,rho)
-        ])
+        val key = CompileCache.key(tx, rho)
+        if (key === null) {
+            // free parameters are bound later by the caller
+            return internalCompileTransaction(tx,rho)
+        }
+        // do not use a loader: compiling a transaction recursively compiles its parents
+        var tb = cache.get(key)
+        if (tb === null) {
+            logger.debug('''Cache miss. Generating...''')
+            tb = internalCompileTransaction(tx,rho)
+            cache.put(key, tb)
+        }
+        return tb
     }
 
-    def private ITransactionBuilder internalCompileTransaction(Transaction tx, Rho rho) {
+    def private ITransactionBuilder internalCompileTransaction(Transaction tx, Rho outerRho) {
 
-        if (rho.isAlreadyVisited(tx)) {
+        if (outerRho.isAlreadyVisited(tx)) {
             logger.error('''Transaction «tx.name» already visited. Cyclic dependency.''')
             throw new CompileException('''Transaction «tx.name» already visited. Cyclic dependency.''')
         }
 
-        rho.addVisited(tx)
+        val rho = outerRho.addVisited(tx)
 
         logger.debug('''START . compiling «tx.name». Rho «rho.entrySet.map[e|'''«e.key.name -> e.value.toString»''']» ''')
 
@@ -191,9 +195,9 @@ class TransactionCompiler {
                                 logger.trace('''«tx.name»: values «values»''')
 
                                 // create a rho for the evaluation
-                                val newHookRho = rho.fresh
+                                var newHookRho = rho.fresh
                                 for(fp : tx.params) {
-                                    newHookRho.put( fp, values.get(fp.name) )
+                                    newHookRho = newHookRho.bind( fp, values.get(fp.name) )
                                 }
                                 logger.trace('''rho «newHookRho»''')
                                 // re-interpret actualP
@@ -260,8 +264,6 @@ class TransactionCompiler {
 
         logger.debug('''END . «tx.name» compiled. vars=«tb.variables», fv=«tb.freeVariables», bv=«tb.boundVariables»''')
 
-        rho.removeVisited(tx)
-
         return tb
     }
 
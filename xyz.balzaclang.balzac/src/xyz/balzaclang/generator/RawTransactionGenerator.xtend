@@ -30,6 +30,7 @@ import xyz.balzaclang.balzac.Eval
 import xyz.balzaclang.balzac.Model
 import xyz.balzaclang.balzac.PackageDeclaration
 import xyz.balzaclang.lib.model.transaction.ITransactionBuilder
+import xyz.balzaclang.lib.model.transaction.MaterializationContext
 import xyz.balzaclang.lib.utils.BitcoinUtils
 import xyz.balzaclang.xsemantics.BalzacInterpreter
 
@@ -72,6 +73,9 @@ class RawTransactionGenerator extends AbstractGenerator {
 
         val sb = new StringBuilder
 
+        // transactions shared by multiple expressions are built once
+        val context = new MaterializationContext(astUtils.getPrivateKeysStore(model))
+
         compiles.get(0).exps
             .forEach[e |
                 val nodeString = e.nodeToString
@@ -86,7 +90,7 @@ class RawTransactionGenerator extends AbstractGenerator {
                     sb.append(nodeString).append("\n")
 
                     if (obj instanceof ITransactionBuilder) {
-                        val tx = obj.toTransaction(astUtils.getPrivateKeysStore(model))
+                        val tx = context.materialize(obj)
                         sb.append(tx).append("\n")
                         sb.append(BitcoinUtils.encode(tx.bitcoinSerialize)).append("\n\n\n")
 //                        sb.append(obj).append("\n\n\n")
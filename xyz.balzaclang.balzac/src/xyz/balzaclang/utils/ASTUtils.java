@@ -74,6 +74,7 @@ import xyz.balzaclang.lib.model.Signature;
 import xyz.balzaclang.lib.model.script.primitives.Primitive;
 import xyz.balzaclang.lib.model.transaction.ITransactionBuilder;
 import xyz.balzaclang.lib.model.transaction.SerialTransactionBuilder;
+import xyz.balzaclang.lib.model.transaction.SigningSession;
 import xyz.balzaclang.lib.utils.BitcoinUtils;
 import xyz.balzaclang.lib.utils.PlaceholderUtils;
 import xyz.balzaclang.xsemantics.BalzacInterpreter;
@@ -90,6 +91,7 @@ public class ASTUtils {
     private OnChangeEvictingCache cache;
 
     private static final String cacheECKeyStoreID = "eckeystore";
+    private static final String cacheSigningSessionID = "signingsession";
 
     public PrivateKeysStore getPrivateKeysStore(EObject obj) throws KeyStoreException {
         Resource resource = obj.eResource();
@@ -128,6 +130,19 @@ public class ASTUtils {
         }
     }
 
+    /**
+     * Return the signing session of the resource containing the given object.
+     * The session is discarded as soon as the resource changes.
+     *
+     * @param obj an object of the resource
+     * @return the signing session
+     * @throws KeyStoreException if an error occurs creating the keystore
+     */
+    public SigningSession getSigningSession(EObject obj) throws KeyStoreException {
+        PrivateKeysStore kstore = getPrivateKeysStore(obj);
+        return cache.get(cacheSigningSessionID, obj.eResource(), () -> new SigningSession(kstore));
+    }
+
     private KeyLiteral getPlaceholderPrivateKey(EObject obj) {
         PrivateKey privateKey = PlaceholderUtils.KEY(networkParams(obj));
         KeyLiteral key = BalzacFactory.eINSTANCE.createKeyLiteral();
@@ -164,6 +179,19 @@ public class ASTUtils {
         }
     }
 
+    /**
+     * Return true if the given value can be converted to a literal by
+     * {@link #objectToExpression(Object)}.
+     *
+     * @param value the value
+     * @return true if the value has a literal representation
+     */
+    public boolean isRepresentable(Object value) {
+        return value instanceof Long || value instanceof String || value instanceof Boolean || value instanceof Hash
+            || value instanceof PrivateKey || value instanceof PublicKey || value instanceof Address
+            || value instanceof Signature;
+    }
+
     public Expression objectToExpression(Object value) {
         if (value instanceof Long) {
             NumberLiteral res = BalzacFactory.eINSTANCE.createNumberLiteral();
@@ -16,11 +16,15 @@
 
 package xyz.balzaclang.validation
 
+import com.google.common.collect.ArrayListMultimap
+import com.google.common.collect.ListMultimap
 import com.google.inject.Inject
 import java.util.HashMap
 import java.util.HashSet
+import java.util.List
 import java.util.Map
 import java.util.Set
+import java.util.concurrent.ForkJoinPool
 import org.apache.log4j.Logger
 import org.eclipse.emf.common.util.EList
 import org.eclipse.emf.ecore.EObject
@@ -36,6 +40,7 @@ import org.eclipse.xtext.resource.IResourceDescriptions
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsProvider
 import org.eclipse.xtext.validation.Check
 import org.eclipse.xtext.validation.CheckType
+import org.eclipse.xsemantics.runtime.Result
 import xyz.balzaclang.balzac.AbsoluteTime
 import xyz.balzaclang.balzac.AddressLiteral
 import xyz.balzaclang.balzac.Assertion
@@ -49,6 +54,7 @@ import xyz.balzaclang.balzac.Div
 import xyz.balzaclang.balzac.Expression
 import xyz.balzaclang.balzac.Import
 import xyz.balzaclang.balzac.Input
+import xyz.balzaclang.balzac.Interpretable
 import xyz.balzaclang.balzac.KeyLiteral
 import xyz.balzaclang.balzac.Minus
 import xyz.balzaclang.balzac.Model
@@ -79,7 +85,6 @@ import xyz.balzaclang.xsemantics.BalzacInterpreter
 import xyz.balzaclang.xsemantics.Rho
 
 import static extension xyz.balzaclang.utils.ASTExtensions.*
-import xyz.balzaclang.lib.PrivateKeysStore
 
 /**
  * This class contains custom validation rules.
@@ -91,11 +96,41 @@ class BalzacValidator extends AbstractBalzacValidator {
     static Logger logger = Logger.getLogger(BalzacValidator);
 
     @Inject extension IQualifiedNameConverter
-    @Inject extension BalzacInterpreter
-    @Inject extension ASTUtils
+    @Inject extension BalzacInterpreter interpreter
+    @Inject extension ASTUtils astUtils
     @Inject ResourceDescriptionsProvider resourceDescriptionsProvider;
     @Inject IContainer.Manager containerManager;
 
+    /*
+     * The session shared by the checks of the current validation run over the
+     * resource containing obj
+     */
+    def private ValidationSession getSession(EObject obj) {
+        val root = EcoreUtil2.getRootContainer(obj)
+        val ctx = context
+        if (ctx === null)
+            return new ValidationSession(interpreter, astUtils, root)
+
+        val key = ValidationSession -> root.eResource
+        var session = ctx.get(key) as ValidationSession
+        if (session === null) {
+            session = new ValidationSession(interpreter, astUtils, root)
+            ctx.put(key, session)
+        }
+        return session
+    }
+
+    /*
+     * Interpret within the validation session, instead of the interpreter extension
+     */
+    def private Result<Object> interpretE(Interpretable exp) {
+        exp.session.interpretE(exp)
+    }
+
+    def private Result<Object> interpret(Interpretable exp, Rho rho) {
+        exp.session.interpret(exp, rho)
+    }
+
     @Check
     def void checkUnusedParameters__Script(Script script){
 
@@ -127,16 +162,17 @@ class BalzacValidator extends AbstractBalzacValidator {
     @Check
     def void checkVerSigDuplicatedKeys(Versig versig) {
 
-        for(var i=0; i<versig.pubkeys.size-1; i++) {
-            for(var j=i+1; j<versig.pubkeys.size; j++) {
-
-                var k1 = versig.pubkeys.get(i).interpretE
-                var k2 = versig.pubkeys.get(j).interpretE
+        val index = versig.session.index
+        val ListMultimap<Object, Integer> keys = ArrayListMultimap.create
+        for(var i=0; i<versig.pubkeys.size; i++) {
+            val k = index.fingerprint(versig.pubkeys.get(i))
+            if (k !== null)
+                keys.put(k, i)
+        }
 
-                if (!k1.failed && !k2.failed && k1.value == k2.value) {
-                    warning("Duplicated public key.", versig, BalzacPackage.Literals.VERSIG__PUBKEYS, i, BalzacValidatorCodes.WARNING_VERSIG_DUPLICATED_PUBKEY, String.valueOf(i))
-                    warning("Duplicated public key.", versig, BalzacPackage.Literals.VERSIG__PUBKEYS, j, BalzacValidatorCodes.WARNING_VERSIG_DUPLICATED_PUBKEY, String.valueOf(j))
-                }
+        for (indexes : keys.asMap.values.filter[size > 1]) {
+            for (i : indexes) {
+                warning("Duplicated public key.", versig, BalzacPackage.Literals.VERSIG__PUBKEYS, i, BalzacValidatorCodes.WARNING_VERSIG_DUPLICATED_PUBKEY, String.valueOf(i))
             }
         }
     }
@@ -145,9 +181,12 @@ class BalzacValidator extends AbstractBalzacValidator {
     def void checkSignatureModifiers(Signature signature) {
 
         var input = EcoreUtil2.getContainerOfType(signature, Input);
-        for (other: EcoreUtil2.getAllContentsOfType(input, Signature)){
+        if (input === null)
+            return
 
-            if (signature!=other && signature.modifier.restrictedBy(other.modifier)) {
+        val signaturesByModifier = signature.session.index.getSignatures(input)
+        for (modifier : signaturesByModifier.keySet.filter[m|signature.modifier.restrictedBy(m)]) {
+            for (other : signaturesByModifier.get(modifier).filter[it != signature]) {
                 warning('''This signature modifier is nullified by another one.''',
                     signature,
                     BalzacPackage.Literals.SIGNATURE__MODIFIER
@@ -241,10 +280,7 @@ class BalzacValidator extends AbstractBalzacValidator {
     }
 
     def private dispatch boolean findReferrable(Model model, Referrable r) {
-        for (d : model.declarations.filter(Referrable)) {
-            if (d !== r && d.name == r.name) return true
-        }
-        return false
+        return model.isDeclaredElsewhere(r)
     }
 
     def private dispatch boolean findReferrable(EObject ctx, Referrable r) {
@@ -252,12 +288,17 @@ class BalzacValidator extends AbstractBalzacValidator {
     }
 
     def private dispatch boolean findReferrable(Participant p, Referrable r) {
-        for (d : p.declarations.filter(Referrable)) {
-            if (d !== r && d.name == r.name) return true
-        }
+        if (p.isDeclaredElsewhere(r)) return true
         return findReferrable(p.eContainer, r)
     }
 
+    /*
+     * Whether the scope (a model or a participant) declares another referrable with the name of r
+     */
+    def private boolean isDeclaredElsewhere(EObject scope, Referrable r) {
+        return r.session.index.getDeclarations(scope).get(r.name).exists[d|d !== r]
+    }
+
     def private dispatch boolean findReferrable(Referrable p, Referrable r) {
         if (p !== r && p.name == r.name) return true
         return findReferrable(p.eContainer, r)
@@ -266,45 +307,27 @@ class BalzacValidator extends AbstractBalzacValidator {
     @Check
     def void checkModelDeclarationNameIsUnique(Model model) {
 
-        val allReferrables = model.declarations.filter(Referrable)
-
-        for (var i=0; i<allReferrables.size-1; i++) {
-            for (var j=i+1; j<allReferrables.size; j++) {
-                val a = allReferrables.get(i)
-                val b = allReferrables.get(j)
-
-                if (a.name == b.name) {
-                    error("Duplicated name "+a.name,
-                        a,
-                        a.literalName
-                    )
-                    error("Duplicated name "+b.name,
-                        b,
-                        b.literalName
-                    )
-                }
-            }
-        }
+        model.checkDeclarationNamesAreUnique
     }
 
     @Check
     def void checkParticipantDeclarationNameIsUnique(Participant participant) {
 
-        val allReferrables = participant.declarations.filter(Referrable)
-
-        for (var i=0; i<allReferrables.size-1; i++) {
-            for (var j=i+1; j<allReferrables.size; j++) {
-                val a = allReferrables.get(i)
-                val b = allReferrables.get(j)
+        participant.checkDeclarationNamesAreUnique
+    }
 
-                if (a.name == b.name) {
-                    error("Duplicated name "+a.name,
-                        a,
-                        a.literalName
-                    )
-                    error("Duplicated name "+b.name,
-                        b,
-                        b.literalName
+    /*
+     * The scope is a model or a participant
+     */
+    def private void checkDeclarationNamesAreUnique(EObject scope) {
+        val declarationsByName = scope.session.index.getDeclarations(scope)
+        for (name : declarationsByName.keySet) {
+            val declarations = declarationsByName.get(name)
+            if (declarations.size > 1) {
+                for (d : declarations) {
+                    error("Duplicated name "+name,
+                        d,
+                        d.literalName
                     )
                 }
             }
@@ -314,17 +337,11 @@ class BalzacValidator extends AbstractBalzacValidator {
     @Check
     def void checkParticipantNameIsUnique(Participant r) {
 
-        var root = EcoreUtil2.getRootContainer(r);
-        val allReferrables = EcoreUtil2.getAllContentsOfType(root, Participant)
-
-        for (other: allReferrables){
-
-            if (r!=other && r.pname.equals(other.pname)) {
-                error("Duplicated name "+other.pname,
-                    r,
-                    BalzacPackage.Literals.PARTICIPANT__PNAME
-                );
-            }
+        if (r.session.index.getParticipants(r.pname).size > 1) {
+            error("Duplicated name "+r.pname,
+                r,
+                BalzacPackage.Literals.PARTICIPANT__PNAME
+            );
         }
     }
 
@@ -551,13 +568,13 @@ class BalzacValidator extends AbstractBalzacValidator {
         val tx = ref.ref as Transaction
         logger.debug('''Checking transaction reference '«ref.nodeToString»' ''')
         val values = ref.actualParams
-        val rho = new Rho(tx.networkParams)
+        var rho = new Rho(tx.networkParams)
         for(var i=0; i<tx.params.size; i++) {
             val fp = tx.params.get(i)
             val ap = values.get(i)
             val value = ap.interpretE
             if (!value.failed)
-                rho.put(fp, value.first)
+                rho = rho.bind(fp, value.first)
             else
                 logger.warn('''Failed to evaluate '«ap.nodeToString»' [warn]''')
         }
@@ -612,19 +629,9 @@ class BalzacValidator extends AbstractBalzacValidator {
             if(hasError) return false;  // interrupt the check
 
             /*
-             * pairwise verify that inputs are unique
+             * verify that inputs are unique
              */
-            for (var i=0; i<tx.inputs.size-1; i++) {
-                for (var j=i+1; j<tx.inputs.size; j++) {
-
-                    var inputA = tx.inputs.get(i)
-                    var inputB = tx.inputs.get(j)
-
-                    var areValid = checkInputsAreUnique(inputA, inputB, mapInputsTx)
-
-                    hasError = hasError || !areValid
-                }
-            }
+            hasError = !checkInputsAreUnique(tx.inputs, mapInputsTx)
 
             if(hasError) return false;  // interrupt the check
 
@@ -647,7 +654,7 @@ class BalzacValidator extends AbstractBalzacValidator {
         /*
          * Verify that the input correctly spends the output
          */
-        hasError = !correctlySpendsOutput(txBuilder, tx.privateKeysStore, source, sourceIsTx)
+        hasError = !correctlySpendsOutput(txBuilder, tx.session, source, sourceIsTx)
 
         if(hasError) return false;  // interrupt the check
 
@@ -740,33 +747,44 @@ class BalzacValidator extends AbstractBalzacValidator {
         return true;
     }
 
-    def boolean checkInputsAreUnique(Input inputA, Input inputB, Map<Input, ITransactionBuilder> mapInputsTx) {
+    def boolean checkInputsAreUnique(List<Input> inputs, Map<Input, ITransactionBuilder> mapInputsTx) {
 
-        val txA = mapInputsTx.get(inputA)
-        val txB = mapInputsTx.get(inputB)
-
-        if (txA===null || txB===null)
-            return true
+        // group the inputs by output index
+        val ListMultimap<Integer, Input> inputsByIndex = ArrayListMultimap.create
+        for (input : inputs) {
+            val tx = mapInputsTx.get(input)
+            if (tx !== null && tx.ready)
+                inputsByIndex.put(input.outpoint, input)
+        }
 
-        if (!txA.ready || !txB.ready)
-            return true
+        var unique = true
+        for (sameIndex : inputsByIndex.asMap.values.filter[size > 1]) {
+            /*
+             * The parents are compared by fingerprint, without signing them.
+             * The fingerprint of a serialized parent is its id, so if serialized
+             * and user-defined parents are mixed, they are compared by id.
+             */
+            val parents = sameIndex.map[mapInputsTx.get(it)]
+            val byId = parents.exists[it instanceof SerialTransactionBuilder] && parents.exists[!(it instanceof SerialTransactionBuilder)]
 
-        if (txA.toTransaction(inputA.privateKeysStore) == txB.toTransaction(inputB.privateKeysStore) && inputA.outpoint==inputB.outpoint
-        ) {
-            error(
-                "Double spending. You cannot redeem the output twice.",
-                inputA,
-                BalzacPackage.Literals.INPUT__TX_REF
-            );
+            val ListMultimap<Object, Input> inputsByParent = ArrayListMultimap.create
+            for (input : sameIndex) {
+                val tx = mapInputsTx.get(input)
+                inputsByParent.put(if (byId) input.session.materialize(tx).txId else input.session.fingerprint(tx), input)
+            }
 
-            error(
-                "Double spending. You cannot redeem the output twice.",
-                inputB,
-                BalzacPackage.Literals.INPUT__TX_REF
-            );
-            return false
+            for (duplicates : inputsByParent.asMap.values.filter[size > 1]) {
+                for (input : duplicates) {
+                    error(
+                        "Double spending. You cannot redeem the output twice.",
+                        input,
+                        BalzacPackage.Literals.INPUT__TX_REF
+                    );
+                }
+                unique = false
+            }
         }
-        return true
+        return unique
     }
 
     def boolean checkFee(Transaction tx, Rho rho, Map<Input, ITransactionBuilder> mapInputsTx, EObject source, boolean sourceIsTx) {
@@ -800,9 +818,11 @@ class BalzacValidator extends AbstractBalzacValidator {
         return true;
     }
 
-    def boolean correctlySpendsOutput(TransactionBuilder txBuilder, PrivateKeysStore keystore, EObject source, boolean sourceIsTx) {
+    def boolean correctlySpendsOutput(TransactionBuilder txBuilder, ValidationSession session, EObject source, boolean sourceIsTx) {
 
-        val validationResult = Validator.checkWitnessesCorrecltySpendsOutputs(txBuilder, keystore)
+        // inputs are verified in parallel when there is more than one
+        val executor = if (txBuilder.inputs.size > 1) ForkJoinPool.commonPool else null
+        val validationResult = Validator.checkWitnessesCorrecltySpendsOutputs(txBuilder, session.materializationContext, executor)
 
         if (validationResult.error) {
             if (validationResult instanceof InputValidationError) {
@@ -928,31 +948,13 @@ class BalzacValidator extends AbstractBalzacValidator {
             return
 
         var tx = EcoreUtil2.getContainerOfType(tlock, Transaction);
-        for (other: tx.relLocks){
-
-            if (tlock!=other && tlock.class==other.class) {
-                logger.debug("checkUniqueRelativeTimelock")
-                val tx1 = tlock.tx.interpretE
-                val tx2 = other.tx.interpretE
-
-                if (tx1.failed) {
-                    logger.debug('''Failed to evaluate '«tlock.tx.nodeToString»' [skip]''')
-                    return;
-                }
-
-                if (tx2.failed) {
-                    logger.debug('''Failed to evaluate '«other.tx.nodeToString»' [skip]''')
-                    return;
-                }
-
-                if ( ITransactionBuilder.equals(tx1.first as ITransactionBuilder, tx2.first as ITransactionBuilder, tlock.privateKeysStore) )
-                    error(
-                        "Duplicated relative timelock",
-                        tlock,
-                        null
-                    );
-            }
-        }
+        logger.debug("checkUniqueRelativeTimelock")
+        if (tlock.session.index.getRelativeTimelocks(tx, tlock).size > 1)
+            error(
+                "Duplicated relative timelock",
+                tlock,
+                null
+            );
     }
 
     @Check
@@ -977,7 +979,7 @@ class BalzacValidator extends AbstractBalzacValidator {
                     return;
                 }
 
-                if ( ITransactionBuilder.equals(tx.first as ITransactionBuilder, inTx.first as ITransactionBuilder, tlock.privateKeysStore) ) {
+                if ( ITransactionBuilder.equals(tx.first as ITransactionBuilder, inTx.first as ITransactionBuilder, tlock.session.materializationContext) ) {
                     return
                 }
             }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.validation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xsemantics.runtime.Result;
+import org.eclipse.xtext.EcoreUtil2;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import xyz.balzaclang.balzac.Element;
+import xyz.balzaclang.balzac.Input;
+import xyz.balzaclang.balzac.Interpretable;
+import xyz.balzaclang.balzac.Model;
+import xyz.balzaclang.balzac.Modifier;
+import xyz.balzaclang.balzac.Participant;
+import xyz.balzaclang.balzac.Referrable;
+import xyz.balzaclang.balzac.RelativeTime;
+import xyz.balzaclang.balzac.Signature;
+import xyz.balzaclang.balzac.Transaction;
+import xyz.balzaclang.lib.model.transaction.FingerprintContext;
+import xyz.balzaclang.lib.model.transaction.ITransactionBuilder;
+import xyz.balzaclang.lib.model.transaction.TransactionBuilder;
+
+/**
+ * Index of the names and of the values of a model, built once per validation
+ * run.
+ * <p>
+ * The symbols (participants, declarations, signatures) are collected by a
+ * single visit of the model. The fingerprints of the values, which require the
+ * interpretation, are computed on demand through the validation session. Two
+ * values have the same fingerprint if and only if they are equal: transaction
+ * builders are compared by their {@link FingerprintContext fingerprints} when
+ * they are ready, by equality otherwise. The checks use the index to find
+ * duplicates with hash lookups, instead of comparing each pair of elements.
+ * </p>
+ */
+public class ModelIndex {
+
+    private final ValidationSession session;
+    private final ListMultimap<String, Participant> participants = ArrayListMultimap.create();
+    private final Map<EObject, ListMultimap<String, Referrable>> declarations = new IdentityHashMap<>();
+    private final Map<Input, ListMultimap<Modifier, Signature>> signatures = new IdentityHashMap<>();
+    private final Map<Transaction, ListMultimap<Object, RelativeTime>> relativeTimelocks = new IdentityHashMap<>();
+
+    public ModelIndex(ValidationSession session, EObject root) {
+        this.session = checkNotNull(session, "'session' cannot be null");
+        checkNotNull(root, "'root' cannot be null");
+
+        if (root instanceof Model model) {
+            indexDeclarations(model, model.getDeclarations());
+        }
+        TreeIterator<EObject> it = root.eAllContents();
+        while (it.hasNext()) {
+            EObject obj = it.next();
+            if (obj instanceof Participant participant) {
+                participants.put(participant.getPname(), participant);
+                indexDeclarations(participant, participant.getDeclarations());
+            }
+            else if (obj instanceof Signature signature) {
+                Input input = EcoreUtil2.getContainerOfType(signature, Input.class);
+                if (input != null) {
+                    signatures.computeIfAbsent(input, i -> ArrayListMultimap.create())
+                        .put(signature.getModifier(), signature);
+                }
+            }
+        }
+    }
+
+    private void indexDeclarations(EObject scope, List<Element> elements) {
+        ListMultimap<String, Referrable> byName = ArrayListMultimap.create();
+        for (Element e : elements) {
+            if (e instanceof Referrable r) {
+                byName.put(r.getName(), r);
+            }
+        }
+        declarations.put(scope, byName);
+    }
+
+    /**
+     * Return the participants with the given name.
+     *
+     * @param name the name of the participants
+     * @return the participants, in order of declaration
+     */
+    public List<Participant> getParticipants(String name) {
+        return participants.get(name);
+    }
+
+    /**
+     * Return the declarations of the given model or participant, grouped by
+     * name.
+     *
+     * @param scope a model or a participant
+     * @return the declarations, in order of declaration within each name
+     */
+    public ListMultimap<String, Referrable> getDeclarations(EObject scope) {
+        ListMultimap<String, Referrable> res = declarations.get(scope);
+        return res != null ? res : ArrayListMultimap.create();
+    }
+
+    /**
+     * Return the signatures of the given input, grouped by modifier.
+     *
+     * @param input the input
+     * @return the signatures, in order of occurrence within each modifier
+     */
+    public ListMultimap<Modifier, Signature> getSignatures(Input input) {
+        ListMultimap<Modifier, Signature> res = signatures.get(input);
+        return res != null ? res : ArrayListMultimap.create();
+    }
+
+    /**
+     * Return the relative timelocks of the given transaction that refer to the
+     * same transaction of the given timelock.
+     *
+     * @param tx    the transaction
+     * @param tlock one of its relative timelocks
+     * @return the timelocks, including the given one, or an empty list if the
+     *         transaction referred by the given timelock cannot be evaluated
+     */
+    public List<RelativeTime> getRelativeTimelocks(Transaction tx, RelativeTime tlock) {
+        ListMultimap<Object, RelativeTime> byTx = relativeTimelocks.get(tx);
+        if (byTx == null) {
+            byTx = ArrayListMultimap.create();
+            for (RelativeTime t : tx.getRelLocks()) {
+                Object fingerprint = fingerprint(t.getTx());
+                if (fingerprint != null) {
+                    byTx.put(fingerprint, t);
+                }
+            }
+            relativeTimelocks.put(tx, byTx);
+        }
+        Object fingerprint = fingerprint(tlock.getTx());
+        return fingerprint != null ? byTx.get(fingerprint) : Collections.emptyList();
+    }
+
+    /**
+     * Return the fingerprint of the value of the given expression.
+     *
+     * @param exp the expression
+     * @return the fingerprint, or null if the expression cannot be evaluated
+     */
+    public Object fingerprint(Interpretable exp) {
+        Result<Object> res = session.interpretE(exp);
+        if (res.failed()) {
+            return null;
+        }
+        Object value = res.getFirst();
+        if (value instanceof ITransactionBuilder tx && (!(tx instanceof TransactionBuilder) || tx.isReady())) {
+            return session.fingerprint(tx);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.validation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.security.KeyStoreException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xsemantics.runtime.Result;
+
+import xyz.balzaclang.balzac.Interpretable;
+import xyz.balzaclang.lib.PrivateKeysStore;
+import xyz.balzaclang.lib.model.transaction.FingerprintContext;
+import xyz.balzaclang.lib.model.transaction.ITransactionBuilder;
+import xyz.balzaclang.lib.model.transaction.MaterializationContext;
+import xyz.balzaclang.utils.ASTUtils;
+import xyz.balzaclang.xsemantics.BalzacInterpreter;
+import xyz.balzaclang.xsemantics.Rho;
+
+/**
+ * The evaluation state shared by the checks of a single validation run over a
+ * resource.
+ * <p>
+ * It holds the results of the interpretation (in particular, the compiled
+ * transaction builders), the transactions materialized from them and the
+ * keystore of the resource, so that each transaction is compiled and
+ * materialized once per run, no matter how many checks refer to it. It also
+ * holds the {@link ModelIndex} of the resource. A session is not thread-safe.
+ * </p>
+ */
+public class ValidationSession {
+
+    private record Key(Interpretable exp, Rho rho) {
+    }
+
+    private final BalzacInterpreter interpreter;
+    private final ASTUtils astUtils;
+    private final EObject root;
+    private final Map<Key, Result<Object>> interpreted = new HashMap<>();
+    private final FingerprintContext fingerprints = new FingerprintContext();
+    private MaterializationContext context;
+    private ModelIndex index;
+
+    public ValidationSession(BalzacInterpreter interpreter, ASTUtils astUtils, EObject root) {
+        this.interpreter = checkNotNull(interpreter, "'interpreter' cannot be null");
+        this.astUtils = checkNotNull(astUtils, "'astUtils' cannot be null");
+        this.root = checkNotNull(root, "'root' cannot be null");
+    }
+
+    /**
+     * Interpret the given expression within rho, unless it was already
+     * interpreted within this session.
+     *
+     * @param exp the expression to interpret
+     * @param rho the bindings of the free variables
+     * @return the result of the interpretation, possibly failed
+     */
+    public Result<Object> interpret(Interpretable exp, Rho rho) {
+        checkNotNull(exp, "'exp' cannot be null");
+        checkNotNull(rho, "'rho' cannot be null");
+        // do not use computeIfAbsent: checks may interpret while interpreting
+        Key key = new Key(exp, rho);
+        Result<Object> res = interpreted.get(key);
+        if (res == null) {
+            res = interpreter.interpret(exp, rho);
+            interpreted.put(key, res);
+        }
+        return res;
+    }
+
+    /**
+     * Interpret the given expression within an empty rho.
+     *
+     * @param exp the expression to interpret
+     * @return the result of the interpretation, possibly failed
+     */
+    public Result<Object> interpretE(Interpretable exp) {
+        checkNotNull(exp, "'exp' cannot be null");
+        return interpret(exp, new Rho(astUtils.networkParams(exp)));
+    }
+
+    /**
+     * Return the keystore of the resource.
+     *
+     * @return the keystore
+     * @throws KeyStoreException if the keystore cannot be created
+     */
+    public PrivateKeysStore getKeystore() throws KeyStoreException {
+        return astUtils.getPrivateKeysStore(root);
+    }
+
+    /**
+     * Return the context materializing the transactions within this session.
+     *
+     * @return the materialization context
+     * @throws KeyStoreException if the keystore cannot be created
+     */
+    public MaterializationContext getMaterializationContext() throws KeyStoreException {
+        if (context == null) {
+            context = new MaterializationContext(getKeystore());
+        }
+        return context;
+    }
+
+    /**
+     * Return the transaction built from the given builder, materialized at most
+     * once within this session.
+     *
+     * @param builder the builder to materialize
+     * @return a bitcoinj transaction
+     * @throws KeyStoreException if the keystore cannot be created
+     */
+    public Transaction materialize(ITransactionBuilder builder) throws KeyStoreException {
+        return getMaterializationContext().materialize(builder);
+    }
+
+    /**
+     * Return the fingerprint of the given builder, computed at most once within
+     * this session and without signing.
+     *
+     * @param builder the builder
+     * @return the fingerprint of the builder
+     * @see FingerprintContext
+     */
+    public Sha256Hash fingerprint(ITransactionBuilder builder) {
+        return fingerprints.fingerprint(builder);
+    }
+
+    /**
+     * Return the index of the model, built the first time it is requested.
+     *
+     * @return the index of the model
+     */
+    public ModelIndex getIndex() {
+        if (index == null) {
+            index = new ModelIndex(this, root);
+        }
+        return index;
+    }
+
+    public int size() {
+        return interpreted.size();
+    }
+}
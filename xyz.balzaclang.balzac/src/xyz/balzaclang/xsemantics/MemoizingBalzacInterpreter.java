@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Nicola Atzei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.balzaclang.xsemantics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xsemantics.runtime.Result;
+import org.eclipse.xsemantics.runtime.RuleApplicationTrace;
+import org.eclipse.xsemantics.runtime.RuleEnvironment;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.util.OnChangeEvictingCache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+
+import xyz.balzaclang.balzac.Interpretable;
+import xyz.balzaclang.balzac.This;
+
+/**
+ * An interpreter that memoizes the successful evaluations, by expression and
+ * rho.
+ * <p>
+ * The results are kept for a single version of the resource containing the
+ * expression, and discarded as soon as it changes. Cyclic dependencies are
+ * detected through the objects visited by rho, so these are part of the key as
+ * well. Expressions containing {@code this} and expressions outside of a
+ * resource are always interpreted. Failures are not memoized.
+ * </p>
+ */
+public class MemoizingBalzacInterpreter extends BalzacInterpreter {
+
+    public static final int MAXIMUM_SIZE = 16 * 1024;
+
+    private static final String CACHE_ID = "interpretedExpressions";
+
+    private record Key(Interpretable expression, Rho rho, Object visited) {
+    }
+
+    /*
+     * The memoized results of a resource, and whether its expressions can be
+     * memoized
+     */
+    private static class Memo {
+        private final Cache<Key, Result<Object>> results = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+        private final Map<EObject, Boolean> memoizable = new ConcurrentHashMap<>();
+    }
+
+    @Inject
+    private OnChangeEvictingCache cache;
+
+    @Override
+    protected Result<Object> interpretInternal(RuleEnvironment _environment_, RuleApplicationTrace _trace_,
+        Interpretable expression, Rho rho) {
+
+        Resource resource = expression == null || rho == null ? null : expression.eResource();
+        if (resource == null) {
+            return super.interpretInternal(_environment_, _trace_, expression, rho);
+        }
+
+        Memo memo = cache.get(CACHE_ID, resource, Memo::new);
+        if (!memo.memoizable.computeIfAbsent(expression, MemoizingBalzacInterpreter::isMemoizable)) {
+            return super.interpretInternal(_environment_, _trace_, expression, rho);
+        }
+
+        // do not use a loader: the interpretation is recursive
+        Key key = new Key(expression, rho, rho.visited());
+        Result<Object> result = memo.results.getIfPresent(key);
+        if (result == null) {
+            result = super.interpretInternal(_environment_, _trace_, expression, rho);
+            memo.results.put(key, result);
+        }
+        return result;
+    }
+
+    /*
+     * 'this' is interpreted by synthesizing a new reference at each evaluation
+     */
+    private static boolean isMemoizable(EObject expression) {
+        return !(expression instanceof This) && EcoreUtil2.getAllContentsOfType(expression, This.class).isEmpty();
+    }
+}
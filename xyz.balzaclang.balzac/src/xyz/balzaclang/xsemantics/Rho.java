@@ -15,43 +15,132 @@
  */
 package xyz.balzaclang.xsemantics;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import org.eclipse.emf.ecore.EObject;
 
 import xyz.balzaclang.balzac.Referrable;
 import xyz.balzaclang.lib.model.NetworkType;
+import xyz.balzaclang.lib.utils.PersistentMap;
 
-public class Rho extends HashMap<Referrable, Object> {
-
-    private static final long serialVersionUID = 1L;
+/**
+ * The environment of the interpreter: the values bound to the referrables and
+ * the objects visited so far, used to detect cyclic dependencies.
+ * <p>
+ * A rho is immutable: binding a value or visiting an object returns a new rho,
+ * which shares its structure with this one, so that extending a rho and
+ * creating a {@link #fresh()} one take constant or logarithmic time. Two rhos
+ * are equal if they bind the same values on the same network, regardless of
+ * the visited objects; the hash code is computed incrementally.
+ * </p>
+ */
+public final class Rho {
 
-    private final Set<EObject> visited = new HashSet<>();
     public final NetworkType networkParams;
+    private final PersistentMap<Referrable, Object> bindings;
+    private final PersistentMap<EObject, Boolean> visited;
 
     public Rho(NetworkType params) {
+        this(params, PersistentMap.empty(), PersistentMap.empty());
+    }
+
+    private Rho(NetworkType params, PersistentMap<Referrable, Object> bindings, PersistentMap<EObject, Boolean> visited) {
         this.networkParams = params;
+        this.bindings = bindings;
+        this.visited = visited;
+    }
+
+    /**
+     * Return a rho binding the given value to the referrable.
+     *
+     * @param ref   the referrable
+     * @param value the value
+     * @return a new rho
+     */
+    public Rho bind(Referrable ref, Object value) {
+        checkNotNull(ref, "'ref' cannot be null");
+        checkNotNull(value, "'value' cannot be null");
+        PersistentMap<Referrable, Object> newBindings = bindings.put(ref, value);
+        return newBindings == bindings ? this : new Rho(networkParams, newBindings, visited);
+    }
+
+    public Object get(Referrable ref) {
+        return bindings.get(ref);
     }
 
-    public Rho addVisited(EObject tx) {
-        visited.add(tx);
-        return this;
+    public boolean containsKey(Referrable ref) {
+        return bindings.containsKey(ref);
     }
 
-    public Rho removeVisited(EObject tx) {
-        visited.remove(tx);
-        return this;
+    public int size() {
+        return bindings.size();
     }
 
-    public boolean isAlreadyVisited(EObject tx) {
-        return visited.contains(tx);
+    public boolean isEmpty() {
+        return bindings.isEmpty();
     }
 
+    /**
+     * Return a copy of the bindings.
+     *
+     * @return the bindings
+     */
+    public Set<Map.Entry<Referrable, Object>> entrySet() {
+        return bindings.toMap().entrySet();
+    }
+
+    /**
+     * Return a rho where the given object is visited.
+     *
+     * @param obj the object
+     * @return a new rho
+     */
+    public Rho addVisited(EObject obj) {
+        checkNotNull(obj, "'obj' cannot be null");
+        PersistentMap<EObject, Boolean> newVisited = visited.put(obj, Boolean.TRUE);
+        return newVisited == visited ? this : new Rho(networkParams, bindings, newVisited);
+    }
+
+    public boolean isAlreadyVisited(EObject obj) {
+        return visited.containsKey(obj);
+    }
+
+    /*
+     * The visited objects, compared by identity
+     */
+    PersistentMap<EObject, Boolean> visited() {
+        return visited;
+    }
+
+    /**
+     * Return a rho without bindings, with the same visited objects of this one.
+     *
+     * @return a new rho
+     */
     public Rho fresh() {
-        Rho rho = new Rho(networkParams);
-        rho.visited.addAll(this.visited);
-        return rho;
+        return bindings.isEmpty() ? this : new Rho(networkParams, PersistentMap.empty(), visited);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(networkParams) + bindings.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Rho other))
+            return false;
+        return networkParams == other.networkParams && bindings.equals(other.bindings);
+    }
+
+    @Override
+    public String toString() {
+        return bindings.toString();
     }
 }